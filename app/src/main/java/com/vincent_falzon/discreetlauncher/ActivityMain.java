@@ -32,6 +32,7 @@ import android.content.pm.ActivityInfo ;
 import android.graphics.drawable.Drawable ;
 import android.os.Build ;
 import android.os.Bundle ;
+import android.os.Looper ;
 import androidx.activity.result.ActivityResultLauncher ;
 import androidx.activity.result.contract.ActivityResultContracts ;
 import androidx.annotation.NonNull ;
@@ -53,19 +54,23 @@ import android.widget.TextView ;
 import com.vincent_falzon.discreetlauncher.core.Application ;
 import com.vincent_falzon.discreetlauncher.core.ApplicationsList ;
 import com.vincent_falzon.discreetlauncher.core.Folder ;
+import com.vincent_falzon.discreetlauncher.core.IconCache ;
+import com.vincent_falzon.discreetlauncher.core.LaunchHistory ;
 import com.vincent_falzon.discreetlauncher.core.Search ;
 import com.vincent_falzon.discreetlauncher.events.ShortcutLegacyListener ;
 import com.vincent_falzon.discreetlauncher.events.PackagesListener ;
 import com.vincent_falzon.discreetlauncher.menu.DialogMenu ;
 import com.vincent_falzon.discreetlauncher.quickaccess.NotificationDisplayer ;
+import com.vincent_falzon.discreetlauncher.storage.StoredFile ;
 
 /**
  * Main activity managing the home screen and app drawer.
  */
-public class ActivityMain extends AppCompatActivity implements View.OnClickListener, SharedPreferences.OnSharedPreferenceChangeListener
+public class ActivityMain extends AppCompatActivity implements View.OnClickListener, SharedPreferences.OnSharedPreferenceChangeListener, ApplicationsList.UpdateListener
 {
 	// Constants
 	private static final String TAG = "ActivityMain" ;
+	private static final int APPLICATIONS_VIEW_POOL_SIZE = 40 ;
 
 	// Attributes
 	private static ApplicationsList applicationsList ;
@@ -73,6 +78,7 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 	private static boolean adapters_update_needed ;
 	private static String internal_folder ;
 	private static int application_width ;
+	private static RecyclerView.RecycledViewPool applicationsViewPool ;
 	private PackagesListener packagesListener ;
 	private ShortcutLegacyListener shortcutLegacyListener ;
 	private SharedPreferences settings ;
@@ -118,6 +124,8 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 
 		// Initializations
 		internal_folder = getApplicationContext().getFilesDir().getAbsolutePath() ;
+		StoredFile.initialize(this) ;
+		LaunchHistory.load() ;
 		density = getResources().getDisplayMetrics().density ;
 
 		// Assign default values to settings not configured yet
@@ -161,12 +169,13 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 				drawer.setOverScrollMode(View.OVER_SCROLL_NEVER) ;
 			}
 
-		// If it does not exist yet, build the applications list
+		// If it does not exist yet, start to build the applications list in the background
 		if(applicationsList == null)
 			{
 				applicationsList = new ApplicationsList() ;
-				applicationsList.update(this) ;
+				applicationsList.requestUpdate(this, null) ;
 			}
+		applicationsList.setUpdateListener(this) ;
 
 		// Prepare the notification
 		notification = new NotificationDisplayer(this) ;
@@ -187,9 +196,14 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 		toggleTouchTargets() ;
 		maybeHideSystemBars(false) ;
 
+		// Prepare the pool of application views shared by all lists of the activity
+		applicationsViewPool = new RecyclerView.RecycledViewPool() ;
+		applicationsViewPool.setMaxRecycledViews(0, APPLICATIONS_VIEW_POOL_SIZE) ;
+
 		// Initialize the content of the favorites panel
 		favoritesAdapter = new RecyclerAdapter(this, applicationsList.getFavorites(), Constants.FAVORITES_PANEL) ;
 		favoritesAdapter.setTextColor(Utils.getColor(settings, Constants.TEXT_COLOR_FAVORITES, Constants.COLOR_FOR_TEXT_ON_OVERLAY)) ;
+		favorites.setRecycledViewPool(applicationsViewPool) ;
 		favorites.setAdapter(favoritesAdapter) ;
 		favoritesLayout = new FlexibleGridLayout(this, application_width) ;
 		favorites.setLayoutManager(favoritesLayout) ;
@@ -198,6 +212,7 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 		// Initialize the content of the full applications list
 		drawerAdapter = new RecyclerAdapter(this, applicationsList.getDrawer(), Constants.APP_DRAWER) ;
 		drawerAdapter.setTextColor(Utils.getColor(settings, Constants.TEXT_COLOR_DRAWER, Constants.COLOR_FOR_TEXT_ON_OVERLAY)) ;
+		drawer.setRecycledViewPool(applicationsViewPool) ;
 		drawer.setAdapter(drawerAdapter) ;
 		drawerLayout = new FlexibleGridLayout(this, application_width) ;
 		drawer.setLayoutManager(drawerLayout) ;
@@ -302,6 +317,9 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 	 */
 	private void keepMenuAccessible()
 	{
+		// Do not continue if the applications list is not built yet
+		if(!applicationsList.isLoaded()) return ;
+
 		// Do not continue if none of the risky settings is enabled
 		if(!(settings.getBoolean(Constants.DISABLE_APP_DRAWER, false) ||
 				settings.getBoolean(Constants.ALWAYS_SHOW_FAVORITES, false))) return ;
@@ -559,38 +577,105 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 	}
 
 
+	/**
+	 * Return the pool of application views shared by all lists of the activity (<code>null</code> if not initialized).
+	 */
+	public static RecyclerView.RecycledViewPool getApplicationsViewPool()
+	{
+		return applicationsViewPool ;
+	}
+
+
 	/**
 	 * Update the list of favorite applications (provide <code>null</code> to hide the message).
 	 */
 	public static void updateFavorites(Context context)
 	{
+		// Update the favorites, and also after the rebuild in progress (if any) which may have read the file before
 		applicationsList.updateFavorites() ;
+		if(applicationsList.isUpdating()) applicationsList.requestUpdate(context, null) ;
 		adapters_update_needed = true ;
+
+		// Display the change right away if it comes from the launcher itself, otherwise when it is resumed
+		if((context instanceof ActivityMain) && !((ActivityMain)context).isDestroyed())
+			((ActivityMain)context).displayFavoritesUpdate() ;
 		if(context != null)
 			Utils.displayToast(context, R.string.info_favorites_refreshed) ;
 	}
 
 
 	/**
-	 * Update the applications list and inform the user.
+	 * Update the applications list in the background and inform the user.
 	 */
 	public static void updateList(Context context)
+	{
+		updateList(context, null) ;
+	}
+
+
+	/**
+	 * Update the applications list in the background, inform the user and run the callback once done.
+	 */
+	public static void updateList(Context context, Runnable callback)
+	{
+		if(skip_list_update) return ;
+		applicationsList.requestUpdate(context, callback) ;
+		Utils.displayToast(context, R.string.info_list_apps_refreshed) ;
+	}
+
+
+	/**
+	 * Update the applications of the given package in the list and inform the user.
+	 */
+	public static void updatePackage(Context context, String apk)
 	{
 		if(skip_list_update) return ;
-		applicationsList.update(context) ;
+		applicationsList.updatePackage(context, apk) ;
 		adapters_update_needed = true ;
 		Utils.displayToast(context, R.string.info_list_apps_refreshed) ;
 	}
 
 
+	/**
+	 * Called on the UI thread when a rebuild of the applications list has been published.
+	 */
+	@Override
+	public void onListUpdated()
+	{
+		// Update the favorites panel and applications drawer display
+		displayFavoritesUpdate() ;
+		keepMenuAccessible() ;
+
+		// In debug builds, measure the performance of critical operations once the list is ready
+		Benchmark.startOnce() ;
+
+		// Prepare the Search popup once the interface is idle, so it opens faster
+		Looper.myQueue().addIdleHandler(() -> {
+				if(!isDestroyed()) Search.preparePopup(this) ;
+				return false ;
+			}) ;
+	}
+
+
+	/**
+	 * Display a change in the favorites list (favorites panel, drawer and message when there are no favorites).
+	 */
+	private void displayFavoritesUpdate()
+	{
+		// Update the adapters, then the message displayed when there are no favorites
+		updateAdapters() ;
+		if(favorites.getVisibility() == View.VISIBLE)
+			noFavoritesYet.setVisibility(applicationsList.getFavorites().isEmpty() ? View.VISIBLE : View.GONE) ;
+	}
+
+
 	/**
 	 * Update the display in the favorites panel and applications drawer.
 	 */
-	@SuppressLint("NotifyDataSetChanged")
 	private void updateAdapters()
 	{
-		favoritesAdapter.notifyDataSetChanged() ;
-		drawerAdapter.notifyDataSetChanged() ;
+		favoritesAdapter.setApplications(applicationsList.getFavorites()) ;
+		drawerAdapter.setApplications(applicationsList.getDrawer()) ;
 		adapters_update_needed = false ;
 	}
 
@@ -677,12 +762,9 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 		// Always show the system bars
 		maybeHideSystemBars(true) ;
 
-		// Hide popups if some are still opened
-		for(Application application : applicationsList.getDrawer())
-		{
-			if(application instanceof Folder) ((Folder)application).closePopup() ;
-			if(application instanceof Search) ((Search)application).closePopup() ;
-		}
+		// Hide popups if some are still opened (they are shared by all folders and searches)
+		Folder.closePopup() ;
+		Search.closePopup() ;
 	}
 
 
@@ -748,12 +830,29 @@ public class ActivityMain extends AppCompatActivity implements View.OnClickListe
 	}
 
 
+	/**
+	 * Release memory when requested by the system.
+	 */
+	@Override
+	public void onTrimMemory(int level)
+	{
+		super.onTrimMemory(level) ;
+		IconCache.trimMemory(level) ;
+	}
+
+
 	/**
 	 * Called when this activity is destroyed.
 	 */
 	@Override
 	public void onDestroy()
 	{
+		// Stop to listen for updates of the applications list and forget the Search popup
+		applicationsList.setUpdateListener(null) ;
+		Search.releasePopup() ;
+		Folder.releasePopup() ;
+		applicationsViewPool = null ;
+
 		// Unregister all remaining broadcast receivers
 		if(packagesListener != null) unregisterReceiver(packagesListener) ;
 		if(shortcutLegacyListener != null) unregisterReceiver(shortcutLegacyListener) ;
@@ -0,0 +1,193 @@
+package com.vincent_falzon.discreetlauncher ;
+
+// License
+/*
+
+	This file is part of Discreet Launcher.
+
+	Copyright (C) 2019-2025 Vincent Falzon
+
+	This program is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ */
+
+// Imports
+import com.vincent_falzon.discreetlauncher.core.Application ;
+import java.text.Collator ;
+import java.util.ArrayList ;
+import java.util.Collections ;
+import java.util.Locale ;
+import java.util.Random ;
+
+/**
+ * Measure the performance of critical operations on synthetic application names (debug builds only, results in logs).
+ */
+abstract class Benchmark
+{
+	// Constants
+	private static final String TAG = "Benchmark" ;
+	private static final int[] SORT_SIZES = { 100, 500, 2000 } ;
+	private static final int SEARCH_SIZE = 1000 ;
+	private static final long SEARCH_GOAL = 1000000 ;
+	private static final int RUNS = 5 ;
+	private static final String[] SYLLABLES = { "ca", "l\u00e9", "ndr", "ier", "Ma", "ps", "no", "tes", "R\u00e9", "veil", "pho", "to", "Ga", "le", "rie", "m\u00e9", "t\u00e9", "o", "Ch", "at" } ;
+
+	// Attributes
+	private static boolean started = false ;
+
+
+	/**
+	 * Run the benchmarks once per process in a background thread, if this is a debug build.
+	 */
+	static synchronized void startOnce()
+	{
+		if(!BuildConfig.DEBUG || started) return ;
+		started = true ;
+		Thread thread = new Thread(() -> {
+				compareSortings() ;
+				measureSearch() ;
+			}) ;
+		thread.setPriority(Thread.MIN_PRIORITY) ;
+		thread.start() ;
+	}
+
+
+	/**
+	 * Compare the sorting of applications with <code>Collator.compare()</code> on each comparison and with
+	 * precomputed <code>CollationKey</code> (including the computation of the keys).
+	 */
+	private static void compareSortings()
+	{
+		for(int size : SORT_SIZES)
+		{
+			// Keep the best time of several runs for each approach
+			ArrayList<String> labels = createLabels(size) ;
+			long collator_time = Long.MAX_VALUE ;
+			long keys_time = Long.MAX_VALUE ;
+			ArrayList<String> collatorOrder = null ;
+			ArrayList<Application> keysOrder = null ;
+			for(int run = 0 ; run < RUNS ; run++)
+			{
+				// Sort with a collator comparing the display names each time
+				ArrayList<String> names = new ArrayList<>(labels) ;
+				long start_time = System.nanoTime() ;
+				Collator collator = Collator.getInstance(Locale.getDefault()) ;
+				collator.setStrength(Collator.PRIMARY) ;
+				Collections.sort(names, collator::compare) ;
+				collator_time = Math.min(collator_time, System.nanoTime() - start_time) ;
+				collatorOrder = names ;
+
+				// Sort new applications (without keys yet) the way the list is sorted
+				ArrayList<Application> applications = createApplications(labels) ;
+				start_time = System.nanoTime() ;
+				Collections.sort(applications, Application::compareByDisplayName) ;
+				keys_time = Math.min(keys_time, System.nanoTime() - start_time) ;
+				keysOrder = applications ;
+			}
+
+			// Display the results and check that both approaches give the same order
+			boolean same_order = true ;
+			Collator collator = Collator.getInstance(Locale.getDefault()) ;
+			collator.setStrength(Collator.PRIMARY) ;
+			for(int i = 0 ; i < size ; i++)
+				if(collator.compare(collatorOrder.get(i), keysOrder.get(i).getDisplayName()) != 0) same_order = false ;
+			Utils.logDebug(TAG, "sort of " + size + " apps: Collator.compare in " + (collator_time / 1000) + "us, CollationKey in "
+					+ (keys_time / 1000) + "us" + (same_order ? "" : " (different orders)")) ;
+		}
+	}
+
+
+	/**
+	 * Measure the search of each kind (start of the name, start of another word, initials and typing errors)
+	 * among a thousand applications, which should take less than a millisecond.
+	 */
+	private static void measureSearch()
+	{
+		// Index the applications and choose a name with several long words to build the searches
+		ArrayList<String> labels = createLabels(SEARCH_SIZE) ;
+		SearchIndex searchIndex = new SearchIndex(createApplications(labels)) ;
+		String[] words = null ;
+		for(String label : labels)
+		{
+			String[] label_words = label.split(" ") ;
+			if((label_words.length == 3) && (label_words[0].length() >= 5) && (label_words[1].length() >= 3))
+				{
+					words = label_words ;
+					break ;
+				}
+		}
+		if(words == null) return ;
+
+		// Prepare one search of each kind (the typing error swaps two characters of the first word)
+		char[] typo = words[0].toCharArray() ;
+		char swapped = typo[1] ;
+		typo[1] = typo[2] ;
+		typo[2] = swapped ;
+		String[] kinds = { "name start", "word start", "initials", "typing error" } ;
+		String[] searches = { words[0].substring(0, 3), words[1].substring(0, 3),
+				"" + words[0].charAt(0) + words[1].charAt(0) + words[2].charAt(0), new String(typo) } ;
+
+		// Keep the best time of several runs for each search (starting from an empty search, as when the user types)
+		for(int i = 0 ; i < searches.length ; i++)
+		{
+			long search_time = Long.MAX_VALUE ;
+			int results = 0 ;
+			for(int run = 0 ; run < RUNS ; run++)
+			{
+				searchIndex.search("") ;
+				long start_time = System.nanoTime() ;
+				results = searchIndex.search(searches[i]).size() ;
+				search_time = Math.min(search_time, System.nanoTime() - start_time) ;
+			}
+			Utils.logDebug(TAG, "search by " + kinds[i] + " (\"" + searches[i] + "\") among " + SEARCH_SIZE + " apps: " + results
+					+ " results in " + (search_time / 1000) + "us" + ((search_time < SEARCH_GOAL) ? "" : " (over the 1ms goal)")) ;
+		}
+	}
+
+
+	/**
+	 * Return the given number of application names made of random syllables, with accents and mixed case.
+	 */
+	static ArrayList<String> createLabels(int count)
+	{
+		// Use always the same names to compare the results between runs
+		Random random = new Random(count) ;
+		ArrayList<String> labels = new ArrayList<>(count) ;
+		for(int i = 0 ; i < count ; i++)
+		{
+			StringBuilder label = new StringBuilder() ;
+			int words = 1 + random.nextInt(3) ;
+			for(int j = 0 ; j < words ; j++)
+			{
+				if(j > 0) label.append(' ') ;
+				int syllables = 1 + random.nextInt(3) ;
+				for(int k = 0 ; k < syllables ; k++) label.append(SYLLABLES[random.nextInt(SYLLABLES.length)]) ;
+			}
+			labels.add(label.toString()) ;
+		}
+		return labels ;
+	}
+
+
+	/**
+	 * Create applications with the given names (without icon).
+	 */
+	static ArrayList<Application> createApplications(ArrayList<String> labels)
+	{
+		ArrayList<Application> applications = new ArrayList<>(labels.size()) ;
+		for(int i = 0 ; i < labels.size() ; i++)
+			applications.add(new Application(labels.get(i), "Activity" + i, "com.example.app" + i, null, null)) ;
+		return applications ;
+	}
+}
@@ -36,6 +36,11 @@ public interface Constants
 	String FILE_SHORTCUTS = "shortcuts.txt" ;
 	String FILE_SHORTCUTS_LEGACY = "shortcuts_legacy.txt" ;
 	String FILE_ICON_SHORTCUT_PREFIX = "icon_shortcut_" ;
+	String FILE_ICON_PACK_INDEX_PREFIX = "icon_pack_index_" ;
+	String FILE_APPLICATIONS_SNAPSHOT = "applications_snapshot.bin" ;
+	String FILE_LAUNCH_HISTORY = "launch_history.bin" ;
+	String FILE_CUSTOMIZATIONS = "customizations.bin" ;
+	String FILE_CUSTOMIZATION_IMAGES = "customization_images.bin" ;
 
 	// Constants related to applications
 	String APK_SEARCH = "discreetlauncher.search" ;
@@ -31,12 +31,14 @@ import androidx.annotation.NonNull ;
 import androidx.appcompat.app.AlertDialog ;
 import androidx.core.content.ContextCompat ;
 import androidx.preference.PreferenceManager ;
+import androidx.recyclerview.widget.DiffUtil ;
 import androidx.recyclerview.widget.RecyclerView ;
 import android.content.SharedPreferences ;
-import android.content.pm.PackageManager ;
-import android.content.pm.ResolveInfo ;
+import android.graphics.Color ;
 import android.graphics.PorterDuff ;
 import android.graphics.Typeface ;
+import android.graphics.drawable.ColorDrawable ;
+import android.graphics.drawable.Drawable ;
 import android.net.Uri ;
 import android.view.LayoutInflater ;
 import android.view.MotionEvent ;
@@ -46,14 +48,15 @@ import android.view.inputmethod.EditorInfo ;
 import android.widget.EditText ;
 import android.widget.TextView ;
 import com.vincent_falzon.discreetlauncher.core.Application ;
+import com.vincent_falzon.discreetlauncher.core.ApplicationsList ;
 import com.vincent_falzon.discreetlauncher.core.Folder ;
 import com.vincent_falzon.discreetlauncher.core.Search ;
 import com.vincent_falzon.discreetlauncher.core.Shortcut ;
 import com.vincent_falzon.discreetlauncher.events.ShortcutListener ;
 import com.vincent_falzon.discreetlauncher.menu.DialogHiddenApps ;
-import com.vincent_falzon.discreetlauncher.storage.InternalFile ;
 import com.vincent_falzon.discreetlauncher.storage.InternalFileTXT ;
 import java.util.ArrayList ;
+import java.util.List ;
 
 /**
  * Fill a RecyclerView with a list of applications.
@@ -62,9 +65,15 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 {
 	// Constants
 	private static final String TAG = "RecyclerAdapter" ;
+	private static final int PAYLOAD_TEXT_COLOR = 1 ;
+	private static final int PAYLOAD_LABEL = 2 ;
+	private static final int PAYLOAD_ICON = 4 ;
 
 	// Attributes
 	ArrayList<Application> applicationsList ;
+	private ArrayList<String> displayedNames ;
+	private ArrayList<Drawable> displayedIcons ;
+	private final Drawable iconPlaceholder ;
 	private final boolean hide_app_names ;
 	private final boolean hide_folder_names ;
 	private final boolean remove_padding ;
@@ -74,12 +83,14 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 
 
 	/**
-	 * Constructor to fill a RecyclerView with the applications list.
+	 * Constructor to fill a RecyclerView with the applications list (a copy is kept, see <code>setApplications()</code>).
 	 */
-	public RecyclerAdapter(Context context, ArrayList<Application> applicationsList, int target)
+	public RecyclerAdapter(Context context, List<Application> applicationsList, int target)
 	{
 		// Initializations
-		this.applicationsList = applicationsList ;
+		this.applicationsList = new ArrayList<>(applicationsList) ;
+		saveDisplayedContent() ;
+		setHasStableIds(true) ;
 		this.target = target ;
 		padding = Math.round(context.getResources().getDimension(R.dimen.spacing_normal)) ;
 		text_color = ContextCompat.getColor(context, R.color.for_text_on_overlay) ;
@@ -89,17 +100,119 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 		hide_app_names = settings.getBoolean(Constants.HIDE_APP_NAMES, false) ;
 		hide_folder_names = settings.getBoolean(Constants.HIDE_FOLDER_NAMES, false) ;
 		remove_padding = settings.getBoolean(Constants.REMOVE_PADDING, false) ;
+
+		// Prepare an empty placeholder displayed while icons are loading
+		int icon_size = Utils.getIconSize(context, settings) ;
+		iconPlaceholder = new ColorDrawable(Color.TRANSPARENT) ;
+		iconPlaceholder.setBounds(0, 0, icon_size, icon_size) ;
 	}
 
 
 	/**
-	 * Set a new text color and refresh the recycler content.
+	 * Replace the applications displayed by the adapter, refreshing only the items which have changed.
+	 */
+	public void setApplications(List<Application> applications)
+	{
+		// Keep a copy of the new list, and the previous one to compare them
+		final ArrayList<Application> previousApplications = applicationsList ;
+		final ArrayList<String> previousNames = displayedNames ;
+		final ArrayList<Drawable> previousIcons = displayedIcons ;
+		applicationsList = new ArrayList<>(applications) ;
+		saveDisplayedContent() ;
+
+		// Compare the lists and dispatch the insertions, removals, moves and changes of items
+		DiffUtil.calculateDiff(new DiffUtil.Callback()
+			{
+				@Override
+				public int getOldListSize() { return previousApplications.size() ; }
+
+				@Override
+				public int getNewListSize() { return applicationsList.size() ; }
+
+				@Override
+				public boolean areItemsTheSame(int old_position, int new_position)
+				{
+					return previousApplications.get(old_position).getComponentInfo().equals(applicationsList.get(new_position).getComponentInfo()) ;
+				}
+
+				@Override
+				public boolean areContentsTheSame(int old_position, int new_position)
+				{
+					// Same name, and same icon (unknown if not loaded yet, unless it is the same application)
+					if(!previousNames.get(old_position).equals(displayedNames.get(new_position))) return false ;
+					if(previousApplications.get(old_position) == applicationsList.get(new_position)) return previousIcons.get(old_position) == displayedIcons.get(new_position) ;
+					return (displayedIcons.get(new_position) != null) && (previousIcons.get(old_position) == displayedIcons.get(new_position)) ;
+				}
+
+				@Override
+				public Object getChangePayload(int old_position, int new_position)
+				{
+					// Indicate which properties have changed, to rebind only them
+					int payload = 0 ;
+					if(!previousNames.get(old_position).equals(displayedNames.get(new_position))) payload |= PAYLOAD_LABEL ;
+					if((previousApplications.get(old_position) != applicationsList.get(new_position))
+						|| (previousIcons.get(old_position) != displayedIcons.get(new_position))) payload |= PAYLOAD_ICON ;
+					return payload ;
+				}
+			}).dispatchUpdatesTo(this) ;
+	}
+
+
+	/**
+	 * Remember the name and icon of each application, to detect the changes when the list is replaced.
+	 */
+	private void saveDisplayedContent()
+	{
+		displayedNames = new ArrayList<>(applicationsList.size()) ;
+		displayedIcons = new ArrayList<>(applicationsList.size()) ;
+		for(Application application : applicationsList)
+		{
+			displayedNames.add(application.getDisplayName()) ;
+			displayedIcons.add(application.getLoadedIcon()) ;
+		}
+	}
+
+
+	/**
+	 * Remove an application from the adapter (if present) without waiting for the next list.
+	 */
+	void removeApplication(Application application)
+	{
+		int position = applicationsList.indexOf(application) ;
+		if(position < 0) return ;
+		applicationsList.remove(position) ;
+		displayedNames.remove(position) ;
+		displayedIcons.remove(position) ;
+		notifyItemRemoved(position) ;
+	}
+
+
+	/**
+	 * Set a new text color and refresh only this property in the recycler content.
 	 */
-	@SuppressLint("NotifyDataSetChanged")
 	public void setTextColor(int new_text_color)
 	{
+		if(new_text_color == text_color) return ;
 		text_color = new_text_color ;
-		notifyDataSetChanged() ;
+		notifyItemRangeChanged(0, getItemCount(), PAYLOAD_TEXT_COLOR) ;
+	}
+
+
+	/**
+	 * Return a stable identifier of the application at the given position, based on its ComponentInfo.
+	 */
+	@Override
+	public long getItemId(int position)
+	{
+		// Compute a 64-bit FNV-1a hash of the ComponentInfo
+		String component_info = applicationsList.get(position).getComponentInfo() ;
+		long hash = 0xcbf29ce484222325L ;
+		for(int i = 0 ; i < component_info.length() ; i++)
+		{
+			hash ^= component_info.charAt(i) ;
+			hash *= 0x100000001b3L ;
+		}
+		return hash ;
 	}
 
 
@@ -122,10 +235,11 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 	@Override
 	public void onBindViewHolder(@NonNull ApplicationView appView, int i)
 	{
-		// Display the application icon and text
+		// Display the application text and icon
+		final Application application = applicationsList.get(i) ;
 		appView.name.setTextColor(text_color) ;
-		appView.name.setText(applicationsList.get(i).getDisplayName()) ;
-		appView.name.setCompoundDrawables(null, applicationsList.get(i).getIcon(), null, null) ;
+		appView.name.setText(application.getDisplayName()) ;
+		bindIcon(appView, application) ;
 
 		// Check the type of application
 		if(applicationsList.get(i) instanceof Folder)
@@ -145,6 +259,58 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 	}
 
 
+	/**
+	 * Update only the properties (text color, name, icon) indicated by the payloads, if any.
+	 */
+	@Override
+	public void onBindViewHolder(@NonNull ApplicationView appView, int i, @NonNull List<Object> payloads)
+	{
+		// Merge the payloads, or perform a full binding if there is none or one is unknown
+		int changes = 0 ;
+		for(Object payload : payloads)
+		{
+			if(!(payload instanceof Integer))
+				{
+					changes = 0 ;
+					break ;
+				}
+			changes |= (Integer)payload ;
+		}
+		if(changes == 0)
+			{
+				onBindViewHolder(appView, i) ;
+				return ;
+			}
+
+		// Update only the properties which have changed
+		Application application = applicationsList.get(i) ;
+		if((changes & PAYLOAD_TEXT_COLOR) != 0) appView.name.setTextColor(text_color) ;
+		if((changes & PAYLOAD_LABEL) != 0) appView.name.setText(application.getDisplayName()) ;
+		if((changes & PAYLOAD_ICON) != 0) bindIcon(appView, application) ;
+	}
+
+
+	/**
+	 * Display the application icon, or its last rendered version or a placeholder while it is loaded in the background.
+	 */
+	private void bindIcon(ApplicationView appView, Application application)
+	{
+		if(application.isIconLoaded()) appView.name.setCompoundDrawables(null, application.getIcon(), null, null) ;
+			else
+			{
+				// Display the icon rendered for the previous list if any (the application is recreated by each rebuild)
+				Drawable lastIcon = ActivityMain.getApplicationsList().getLastRenderedIcon(appView.name.getContext(), application) ;
+				appView.name.setCompoundDrawables(null, (lastIcon != null) ? lastIcon : iconPlaceholder, null, null) ;
+				ApplicationsList.loadIconInBackground(application, () -> {
+						// Display the icon if the view still represents the same application
+						int position = appView.getBindingAdapterPosition() ;
+						if((appView.getBindingAdapter() == this) && (position != RecyclerView.NO_POSITION) && (position < applicationsList.size()) && (applicationsList.get(position) == application))
+							appView.name.setCompoundDrawables(null, application.getIcon(), null, null) ;
+					}) ;
+			}
+	}
+
+
 	/**
 	 * Return the number of items in the RecyclerView.
 	 */
@@ -159,9 +325,9 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 	// ---------------------------------------------------------------------------------------------
 
 	/**
-	 * Represent a clickable application item in the RecyclerView.
+	 * Represent a clickable application item in the RecyclerView (views are shared between adapters through the pool).
 	 */
-	public class ApplicationView extends RecyclerView.ViewHolder implements View.OnTouchListener, View.OnClickListener, View.OnLongClickListener, View.OnFocusChangeListener
+	public static class ApplicationView extends RecyclerView.ViewHolder implements View.OnTouchListener, View.OnClickListener, View.OnLongClickListener, View.OnFocusChangeListener
 	{
 		// Attributes
 		private final TextView name ;
@@ -186,6 +352,15 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 		}
 
 
+		/**
+		 * Return the adapter currently displaying this view (<code>null</code> if none).
+		 */
+		private RecyclerAdapter getAdapter()
+		{
+			return (RecyclerAdapter)getBindingAdapter() ;
+		}
+
+
 		/**
 		 * Called when the application is touched.
 		 */
@@ -248,8 +423,13 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 		@Override
 		public void onClick(View view)
 		{
+			// Retrieve the clicked application
+			RecyclerAdapter adapter = getAdapter() ;
+			int position = getBindingAdapterPosition() ;
+			if((adapter == null) || (position == RecyclerView.NO_POSITION)) return ;
+
 			// Start the application
-			Application application = applicationsList.get(getBindingAdapterPosition()) ;
+			Application application = adapter.applicationsList.get(position) ;
 			if(!application.start(view))
 				{
 					final Context context = view.getContext() ;
@@ -261,26 +441,21 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 		/**
 		 * Called when the application is long clicked.
 		 */
-		@SuppressLint("NotifyDataSetChanged")
 		@Override
 		public boolean onLongClick(final View view)
 		{
 			// Get the clicked position and retrieve the selected application
-			if(view == null) return false ;
-			final Application application = applicationsList.get(getBindingAdapterPosition()) ;
+			final RecyclerAdapter adapter = getAdapter() ;
+			int position = getBindingAdapterPosition() ;
+			if((view == null) || (adapter == null) || (position == RecyclerView.NO_POSITION)) return false ;
+			final Application application = adapter.applicationsList.get(position) ;
 			final Context context = view.getContext() ;
 
-			// Check if the application is in the favorites panel
+			// Check if the application is in the favorites panel or in a folder (from memory, without reading the files)
 			String component_info = application.getComponentInfo() ;
-			final boolean is_favorite = new InternalFileTXT(Constants.FILE_FAVORITES).isLineExisting(component_info) ;
-
-			// Check if the application is in a folder
-			String is_in_folder_buffer = null ;
-			String[] folders_files = InternalFile.searchFilesStartingWith(context, Constants.FILE_FOLDER_PREFIX) ;
-			for(String filename : folders_files)
-				if(new InternalFileTXT(filename).isLineExisting(component_info))
-					is_in_folder_buffer = filename.replace(Constants.FILE_FOLDER_PREFIX, "").replace(".txt", "") ;
-			final String is_in_folder = is_in_folder_buffer ;
+			ApplicationsList applicationsList = ActivityMain.getApplicationsList() ;
+			final boolean is_favorite = applicationsList.isFavorite(component_info) ;
+			final String is_in_folder = applicationsList.getFolderName(component_info) ;
 
 			// Prepare and display the selection dialog
 			AlertDialog.Builder dialog = new AlertDialog.Builder(context) ;
@@ -306,7 +481,6 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 									// Remove the shortcut from the file and update the applications list
 									ShortcutListener.removeShortcut(context, application.getName(), application.getApk(), application.getComponentInfo()) ;
 									ActivityMain.updateList(context) ;
-									notifyDataSetChanged() ;
 									break ;
 								case 2 :
 									// Display the dialog to rename the shortcut
@@ -318,7 +492,7 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 									break ;
 								case 4 :
 									// Toggle the presence of the shortcut in a folder
-									toggleFolder(context, application, is_in_folder) ;
+									toggleFolder(context, application, is_in_folder, adapter) ;
 									break ;
 							}
 						}) ;
@@ -423,7 +597,7 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 									break ;
 								case 5 :
 									// Toggle the presence of the shortcut in a folder
-									toggleFolder(context, application, is_in_folder) ;
+									toggleFolder(context, application, is_in_folder, adapter) ;
 									break ;
 							}
 						}) ;
@@ -438,7 +612,6 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 		/**
 		 * Display a dialog allowing to rename the application.
 		 */
-		@SuppressLint("NotifyDataSetChanged")
 		private void showRenameDialog(final Context context, final Application application)
 		{
 			// Create the menu dialog
@@ -452,16 +625,8 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 			renameField.setSingleLine() ;
 			renameField.setImeOptions(EditorInfo.IME_ACTION_DONE) ;
 
-			// Retrieve the original name of the application
-			Intent intent = new Intent(Intent.ACTION_MAIN) ;
-			intent.addCategory(Intent.CATEGORY_LAUNCHER) ;
-			PackageManager apkManager = context.getPackageManager() ;
-			for(ResolveInfo entry : apkManager.queryIntentActivities(intent, 0))
-				if(application.getComponentInfo().equals("{" + entry.activityInfo.packageName + "/" + entry.activityInfo.name + "}"))
-					{
-						renameField.setHint(entry.loadLabel(apkManager)) ;
-						break ;
-					}
+			// Display the original name of the application as hint
+			renameField.setHint(application.getOriginalName()) ;
 
 			// Add the button to save a new name
 			dialog.setPositiveButton(R.string.button_apply, (dialog1, which) -> {
@@ -475,7 +640,6 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 
 					// Update the applications list
 					ActivityMain.updateList(context) ;
-					notifyDataSetChanged() ;
 				}) ;
 
 			// Display the dialog
@@ -487,7 +651,6 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 		/**
 		 * Toggle the presence of an application in the favorites panel.
 		 */
-		@SuppressLint("NotifyDataSetChanged")
 		private void toggleFavorite(Context context, Application application, boolean is_favorite)
 		{
 			// Retrieve the file and the application ComponentInfo
@@ -497,18 +660,17 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 			// Toggle the presence of the application in the favorites panel
 			if(is_favorite) favorites.removeLine(component_info) ;
 				else favorites.writeLine(component_info) ;
+			ActivityMain.getApplicationsList().setFavorite(component_info, !is_favorite) ;
 
 			// Update the favorites list
 			ActivityMain.updateFavorites(context) ;
-			notifyDataSetChanged() ;
 		}
 
 
 		/**
 		 * Toggle the presence of an application in a folder.
 		 */
-		@SuppressLint("NotifyDataSetChanged")
-		private void toggleFolder(final Context context, final Application application, String is_in_folder)
+		private void toggleFolder(final Context context, final Application application, String is_in_folder, final RecyclerAdapter adapter)
 		{
 			// Check is the application needs to be added to a folder, or removed from a folder
 			if(is_in_folder != null)
@@ -516,17 +678,17 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 					// Remove the application from its current folder
 					InternalFileTXT folder = new InternalFileTXT(Constants.FILE_FOLDER_PREFIX + is_in_folder + ".txt") ;
 					folder.removeLine(application.getComponentInfo()) ;
+					ActivityMain.getApplicationsList().setFolderName(application.getComponentInfo(), null) ;
 
 					// If we are currently in the folder, update its content manually
-					if(target == Constants.FOLDER) applicationsList.remove(application) ;
+					if(adapter.target == Constants.FOLDER) adapter.removeApplication(application) ;
 
 					// Display a warning if some interface elements cannot be immediately updated
-					if((target == Constants.FOLDER) || (target == Constants.SEARCH))
+					if((adapter.target == Constants.FOLDER) || (adapter.target == Constants.SEARCH))
 						Utils.displayLongToast(context, context.getString(R.string.info_display_partially_updated)) ;
 
 					// Update the list of applications
 					ActivityMain.updateList(context) ;
-					notifyDataSetChanged() ;
 				}
 				else
 				{
@@ -543,14 +705,14 @@ public class RecyclerAdapter extends RecyclerView.Adapter<RecyclerAdapter.Applic
 							// Add the application to the selected folder
 							InternalFileTXT folder = new InternalFileTXT(folders.get(selection).getFileName()) ;
 							folder.writeLine(application.getComponentInfo()) ;
+							ActivityMain.getApplicationsList().setFolderName(application.getComponentInfo(), folders.get(selection).getDisplayName()) ;
 
 							// Display a warning if some interface elements cannot be immediately updated
-							if(target == Constants.SEARCH)
+							if(adapter.target == Constants.SEARCH)
 								Utils.displayLongToast(context, context.getString(R.string.info_display_partially_updated)) ;
 
 							// Update the list of applications
 							ActivityMain.updateList(context) ;
-							notifyDataSetChanged() ;
 						}) ;
 					dialog.show() ;
 				}
@@ -23,23 +23,37 @@ package com.vincent_falzon.discreetlauncher ;
  */
 
 // Imports
-import android.annotation.SuppressLint ;
 import android.content.Context ;
+import android.os.Handler ;
+import android.os.Looper ;
+import android.os.SystemClock ;
 import android.view.View ;
 import android.widget.Filter ;
 import android.widget.Filterable ;
+import androidx.recyclerview.widget.DiffUtil ;
 import com.vincent_falzon.discreetlauncher.core.Application ;
-import java.text.Collator ;
 import java.util.ArrayList ;
+import java.util.List ;
 
 /**
  * Fill a RecyclerView with a list of applications filtered with a search result.
  */
 public class SearchAdapter extends RecyclerAdapter implements Filterable
 {
+	// Constants
+	private static final long FAST_TYPING_INTERVAL = 150 ;
+	private static final long FAST_TYPING_DELAY = 80 ;
+
 	// Attributes
 	private final ArrayList<Application> initialApplicationsList ;
-	private final Collator collator ;
+	private final SearchIndex searchIndex ;
+	private final Filter filter ;
+	private final Handler handler ;
+	private Runnable pendingFilter ;
+	private volatile String latest_text ;
+	private long last_change_time ;
+	private volatile int generation ;
+	private List<Application> lastResults ;
 
 
 	/**
@@ -52,69 +66,155 @@ public class SearchAdapter extends RecyclerAdapter implements Filterable
 
 		// Initializations
 		initialApplicationsList = applicationsList ;
-		collator = Collator.getInstance() ;
-		collator.setStrength(Collator.PRIMARY) ;
+		searchIndex = new SearchIndex(applicationsList) ;
+		filter = new SearchFilter() ;
+		handler = new Handler(Looper.getMainLooper()) ;
+		pendingFilter = null ;
+		latest_text = "" ;
+		last_change_time = 0 ;
+		generation = 0 ;
+		lastResults = applicationsList ;
 	}
 
 
 	/**
-	 * Create the filter which will be used to search in the list.
+	 * Return the filter used to search in the list (always the same one, so searches are run one at a time).
 	 */
 	@Override
 	public Filter getFilter()
 	{
-		return new Filter()
+		return filter ;
+	}
+
+
+	/**
+	 * Search the given text, waiting a little if the user is typing fast (only the last text is then searched).
+	 */
+	public void filterAfterDelay(CharSequence text)
+	{
+		// Mark the searches in progress as obsolete
+		latest_text = text.toString() ;
+		generation++ ;
+
+		// Wait a little before searching if the previous change was recent
+		long now = SystemClock.uptimeMillis() ;
+		long delay = ((now - last_change_time) < FAST_TYPING_INTERVAL) ? FAST_TYPING_DELAY : 0 ;
+		last_change_time = now ;
+
+		// Replace the search waiting to be started, if any
+		if(pendingFilter != null) handler.removeCallbacks(pendingFilter) ;
+		final String search = latest_text ;
+		pendingFilter = () -> {
+				pendingFilter = null ;
+				filter.filter(search) ;
+			} ;
+		handler.postDelayed(pendingFilter, delay) ;
+	}
+
+
+	/**
+	 * Launch the first app of the results for the latest text, which is the most likely one (if any).
+	 */
+	public void launchFirstApp(View view)
+	{
+		List<Application> results = latest_text.isEmpty() ? initialApplicationsList : searchIndex.search(latest_text) ;
+		if(results.size() >= 1)
+			results.get(0).start(view) ;
+	}
+
+
+	// ---------------------------------------------------------------------------------------------
+
+	/**
+	 * Search in the list on a background thread and display only the changes in the results.
+	 */
+	private class SearchFilter extends Filter
+	{
+		/**
+		 * Retrieve the results after the filter is applied.
+		 */
+		@Override
+		protected FilterResults performFiltering(CharSequence text)
 		{
-			/**
-			 * Retrieve the results after the filter is applied.
-			 */
-			@Override
-			protected FilterResults performFiltering(CharSequence filter)
-			{
-				// Check if there is a search pattern
-				String search = filter.toString() ;
-				if(search.isEmpty()) applicationsList = initialApplicationsList ;
-					else
+			// Skip the search if the text has changed since it was requested
+			FilterResults filterResults = new FilterResults() ;
+			int search_generation = generation ;
+			String search = text.toString() ;
+			if(!search.equals(latest_text)) return filterResults ;
+
+			// Check if there is a search pattern
+			final ArrayList<Application> results = search.isEmpty() ? initialApplicationsList : searchIndex.search(search) ;
+
+			// Skip the results if the text has changed during the search
+			if(search_generation != generation) return filterResults ;
+
+			// Compare the results with those currently displayed
+			final List<Application> previousResults = lastResults ;
+			DiffUtil.DiffResult difference = DiffUtil.calculateDiff(new DiffUtil.Callback()
+				{
+					@Override
+					public int getOldListSize() { return previousResults.size() ; }
+
+					@Override
+					public int getNewListSize() { return results.size() ; }
+
+					@Override
+					public boolean areItemsTheSame(int old_position, int new_position)
+					{
+						return previousResults.get(old_position) == results.get(new_position) ;
+					}
+
+					@Override
+					public boolean areContentsTheSame(int old_position, int new_position)
 					{
-						// Filter results based on the search pattern ignoring case and accents
-						applicationsList = new ArrayList<>() ;
-						int search_length = search.length() ;
-						for(Application application : initialApplicationsList)
-						{
-							String app_name = application.getDisplayName() ;
-							if(collator.equals(app_name.substring(0, Math.min(search_length, app_name.length())), search))
-								applicationsList.add(application) ;
-						}
+						return true ;
 					}
+				}, false) ;
 
-				// Prepare the filter results
-				FilterResults filterResults = new FilterResults() ;
-				filterResults.values = applicationsList ;
-				return filterResults ;
-			}
-
-
-			/**
-			 * Display the search results.
-			 */
-			@SuppressLint("NotifyDataSetChanged")
-			@Override
-			protected void publishResults(CharSequence filter, FilterResults results)
-			{
-				//noinspection unchecked
-				applicationsList = (ArrayList<Application>)results.values ;
-				notifyDataSetChanged() ;
-			}
-		} ;
+			// Prepare the filter results (they will all be displayed in order, so the next comparison starts from them)
+			lastResults = results ;
+			filterResults.values = new SearchResults(results, difference) ;
+			filterResults.count = results.size() ;
+			return filterResults ;
+		}
+
+
+		/**
+		 * Display the search results.
+		 */
+		@Override
+		protected void publishResults(CharSequence text, FilterResults filterResults)
+		{
+			// Ignore the searches skipped because they were obsolete
+			if(filterResults.values == null) return ;
+
+			// Update only the items which have changed
+			SearchResults results = (SearchResults)filterResults.values ;
+			applicationsList = results.applications ;
+			results.difference.dispatchUpdatesTo(SearchAdapter.this) ;
+		}
 	}
 
 
+	// ---------------------------------------------------------------------------------------------
+
 	/**
-	 * Launch the first app currently displayed in the adapter (if any).
+	 * Represent the results of a search and their differences with the previous ones.
 	 */
-	public void launchFirstApp(View view)
+	private static class SearchResults
 	{
-		if(getItemCount() >= 1)
-			applicationsList.get(0).start(view) ;
+		// Attributes
+		final ArrayList<Application> applications ;
+		final DiffUtil.DiffResult difference ;
+
+
+		/**
+		 * Constructor.
+		 */
+		SearchResults(ArrayList<Application> applications, DiffUtil.DiffResult difference)
+		{
+			this.applications = applications ;
+			this.difference = difference ;
+		}
 	}
 }
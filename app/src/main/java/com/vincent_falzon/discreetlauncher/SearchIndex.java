@@ -0,0 +1,398 @@
+package com.vincent_falzon.discreetlauncher ;
+
+// License
+/*
+
+	This file is part of Discreet Launcher.
+
+	Copyright (C) 2019-2025 Vincent Falzon
+
+	This program is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ */
+
+// Imports
+import com.vincent_falzon.discreetlauncher.core.Application ;
+import com.vincent_falzon.discreetlauncher.core.LaunchHistory ;
+import java.text.Normalizer ;
+import java.util.ArrayList ;
+import java.util.Arrays ;
+import java.util.Collections ;
+import java.util.List ;
+
+/**
+ * Index the display names of applications to search them ignoring case and accents. The results are ranked:
+ * start of the name, then start of another word, then initials, then names with one or two typing errors (missing,
+ * extra, wrong or swapped characters). Within a rank, the applications launched often and recently come first.
+ */
+class SearchIndex
+{
+	// Constants
+	private static final String TAG = "SearchIndex" ;
+	private static final int RANK_NAME_START = 0 ;
+	private static final int RANK_WORD_START = 1 ;
+	private static final int RANK_INITIALS = 2 ;
+	private static final int RANK_FUZZY = 3 ;
+	private static final int RANKS_COUNT = 5 ;
+	private static final int NO_MATCH = Integer.MAX_VALUE ;
+
+	// Attributes
+	private final List<Application> applications ;
+	private final String[] keys ;
+	private final int[][] word_starts ;
+	private final String[] initials ;
+	private final int[] words_positions ;
+	private final int[] words_offsets ;
+	private final int[] initials_positions ;
+	private final double[] weights ;
+	private int weights_generation ;
+	private final int[] ranks ;
+	private String last_search ;
+	private int last_max_distance ;
+	private int[] last_fuzzy_pool ;
+
+
+	/**
+	 * Constructor (the order of the given applications is kept within each rank of search results).
+	 */
+	SearchIndex(List<Application> applications)
+	{
+		// Normalize the display name of each application and find its words
+		this.applications = applications ;
+		int count = applications.size() ;
+		keys = new String[count] ;
+		word_starts = new int[count][] ;
+		initials = new String[count] ;
+		int words_count = 0 ;
+		for(int i = 0 ; i < count ; i++)
+		{
+			String display_name = removeAccents(applications.get(i).getDisplayName()) ;
+			keys[i] = toLowerCase(display_name) ;
+			word_starts[i] = findWordStarts(display_name) ;
+			StringBuilder application_initials = new StringBuilder(word_starts[i].length) ;
+			for(int offset : word_starts[i]) application_initials.append(keys[i].charAt(offset)) ;
+			initials[i] = application_initials.toString() ;
+			words_count += word_starts[i].length ;
+		}
+
+		// Sort the starts of all words based on the text which follows them
+		long[] words = new long[words_count] ;
+		int index = 0 ;
+		for(int i = 0 ; i < count ; i++)
+			for(int offset : word_starts[i]) words[index++] = ((long)i << 32) | offset ;
+		Long[] sorted_words = new Long[words_count] ;
+		for(int i = 0 ; i < words_count ; i++) sorted_words[i] = words[i] ;
+		Arrays.sort(sorted_words, (word1, word2) -> compareSuffixes((int)(word1 >>> 32), (int)(long)word1, (int)(word2 >>> 32), (int)(long)word2)) ;
+		words_positions = new int[words_count] ;
+		words_offsets = new int[words_count] ;
+		for(int i = 0 ; i < words_count ; i++)
+		{
+			words_positions[i] = (int)(sorted_words[i] >>> 32) ;
+			words_offsets[i] = (int)(long)sorted_words[i] ;
+		}
+
+		// Sort the positions of applications based on their initials
+		Integer[] positions = new Integer[count] ;
+		for(int i = 0 ; i < count ; i++) positions[i] = i ;
+		Arrays.sort(positions, (position1, position2) -> initials[position1].compareTo(initials[position2])) ;
+		initials_positions = new int[count] ;
+		for(int i = 0 ; i < count ; i++) initials_positions[i] = positions[i] ;
+
+		// Retrieve the launch history weight of each application
+		weights = new double[count] ;
+		refreshWeights() ;
+
+		// Initializations
+		ranks = new int[count] ;
+		last_search = null ;
+		last_max_distance = 0 ;
+		last_fuzzy_pool = null ;
+	}
+
+
+	/**
+	 * Read again the launch history weight of each application (the history may have been loaded or completed since).
+	 */
+	private void refreshWeights()
+	{
+		weights_generation = LaunchHistory.getGeneration() ;
+		for(int i = 0 ; i < weights.length ; i++) weights[i] = LaunchHistory.getWeight(applications.get(i).getComponentInfo()) ;
+	}
+
+
+	/**
+	 * Return a text without accents and in lower case, to compare it with others.
+	 */
+	static String normalize(String text)
+	{
+		return toLowerCase(removeAccents(text)) ;
+	}
+
+
+	/**
+	 * Return a text without accents (each character is kept at the same position once accents are removed).
+	 */
+	private static String removeAccents(String text)
+	{
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD) ;
+		StringBuilder result = new StringBuilder(decomposed.length()) ;
+		for(int i = 0 ; i < decomposed.length() ; i++)
+		{
+			char character = decomposed.charAt(i) ;
+			if(Character.getType(character) != Character.NON_SPACING_MARK) result.append(character) ;
+		}
+		return result.toString() ;
+	}
+
+
+	/**
+	 * Return a text in lower case, character by character (to keep the positions of characters).
+	 */
+	private static String toLowerCase(String text)
+	{
+		char[] characters = text.toCharArray() ;
+		for(int i = 0 ; i < characters.length ; i++) characters[i] = Character.toLowerCase(characters[i]) ;
+		return new String(characters) ;
+	}
+
+
+	/**
+	 * Return the offsets where words start (the beginning of the text, then after a separator or at an upper case
+	 * letter following a lower case one).
+	 */
+	private static int[] findWordStarts(String text)
+	{
+		int[] starts = new int[text.length()] ;
+		int count = 0 ;
+		for(int i = 0 ; i < text.length() ; i++)
+		{
+			char character = text.charAt(i) ;
+			if(i == 0) starts[count++] = i ;
+				else if(Character.isLetterOrDigit(character))
+				{
+					char previous = text.charAt(i - 1) ;
+					if(!Character.isLetterOrDigit(previous) || (Character.isUpperCase(character) && Character.isLowerCase(previous)))
+						starts[count++] = i ;
+				}
+		}
+		return Arrays.copyOf(starts, count) ;
+	}
+
+
+	/**
+	 * Return the applications matching the given text, the best ranked first.
+	 */
+	synchronized ArrayList<Application> search(String text)
+	{
+		// Without text, all applications match
+		long start_time = System.nanoTime() ;
+		String search = normalize(text) ;
+		if(search.isEmpty())
+			{
+				last_search = null ;
+				last_fuzzy_pool = null ;
+				return new ArrayList<>(applications) ;
+			}
+
+		// Use the current launch history weights
+		if(weights_generation != LaunchHistory.getGeneration()) refreshWeights() ;
+
+		// Rank the applications whose name or another word starts with the search
+		Arrays.fill(ranks, NO_MATCH) ;
+		int first = lowerBound(words_positions, words_offsets, search, false) ;
+		int last = lowerBound(words_positions, words_offsets, search, true) ;
+		for(int i = first ; i < last ; i++)
+			keepBestRank(words_positions[i], (words_offsets[i] == 0) ? RANK_NAME_START : RANK_WORD_START) ;
+
+		// Rank the applications whose initials start with the search
+		first = lowerBound(initials_positions, null, search, false) ;
+		last = lowerBound(initials_positions, null, search, true) ;
+		for(int i = first ; i < last ; i++) keepBestRank(initials_positions[i], RANK_INITIALS) ;
+
+		// Rank the applications with typing errors, among those found for the previous text if it has only been extended
+		int max_distance = getMaxDistance(search.length()) ;
+		int[] fuzzy_pool = null ;
+		if(max_distance > 0)
+			{
+				boolean narrow = (last_search != null) && (last_fuzzy_pool != null) && search.startsWith(last_search) && (max_distance == last_max_distance) ;
+				fuzzy_pool = searchWithErrors(search, max_distance, narrow ? last_fuzzy_pool : null) ;
+			}
+		last_search = search ;
+		last_max_distance = max_distance ;
+		last_fuzzy_pool = fuzzy_pool ;
+
+		// Return the matching applications by rank, then by launch history (keeping the initial order otherwise)
+		ArrayList<Application> result = new ArrayList<>() ;
+		ArrayList<Integer> rank_positions = new ArrayList<>() ;
+		for(int rank = 0 ; rank < RANKS_COUNT ; rank++)
+		{
+			rank_positions.clear() ;
+			for(int position = 0 ; position < ranks.length ; position++)
+				if(ranks[position] == rank) rank_positions.add(position) ;
+			Collections.sort(rank_positions, (position1, position2) -> Double.compare(weights[position2], weights[position1])) ;
+			for(int position : rank_positions) result.add(applications.get(position)) ;
+		}
+		Utils.logDebug(TAG, result.size() + " results among " + ranks.length + " in " + ((System.nanoTime() - start_time) / 1000) + "us") ;
+		return result ;
+	}
+
+
+	/**
+	 * Rank the applications whose words start with the search with a few errors.
+	 * @return the positions of the applications within the maximum distance (to narrow the next search)
+	 */
+	private int[] searchWithErrors(String search, int max_distance, int[] pool)
+	{
+		// Prepare the rows used to compute the distances
+		int[][] rows = new int[3][search.length() + max_distance + 1] ;
+
+		// Browse the pool of applications (or all of them)
+		int count = (pool == null) ? keys.length : pool.length ;
+		int[] matches = new int[count] ;
+		int matches_count = 0 ;
+		for(int i = 0 ; i < count ; i++)
+		{
+			// Keep the applications already found without errors
+			int position = (pool == null) ? i : pool[i] ;
+			if(ranks[position] <= RANK_WORD_START)
+				{
+					matches[matches_count++] = position ;
+					continue ;
+				}
+
+			// Search the word which starts with the closest text
+			int best_distance = max_distance + 1 ;
+			for(int offset : word_starts[position])
+				best_distance = Math.min(best_distance, getPrefixDistance(search, keys[position], offset, max_distance, rows)) ;
+			if(best_distance > max_distance) continue ;
+
+			// Keep the application
+			matches[matches_count++] = position ;
+			keepBestRank(position, RANK_FUZZY + best_distance - 1) ;
+		}
+		return Arrays.copyOf(matches, matches_count) ;
+	}
+
+
+	/**
+	 * Return the smallest edit distance between the search and a text starting at the given offset of a key,
+	 * or more than the maximum distance if none is close enough.
+	 */
+	private static int getPrefixDistance(String search, String key, int offset, int max_distance, int[][] rows)
+	{
+		// Compare the search with the beginning of the word (up to a few extra characters)
+		int text_length = Math.min(key.length() - offset, search.length() + max_distance) ;
+		int[] before_previous_row = rows[0] ;
+		int[] previous_row = rows[1] ;
+		int[] current_row = rows[2] ;
+		for(int j = 0 ; j <= text_length ; j++) previous_row[j] = j ;
+		for(int i = 1 ; i <= search.length() ; i++)
+		{
+			// Compute the next row of distances and stop as soon as all of them are too high
+			current_row[0] = i ;
+			int row_minimum = i ;
+			for(int j = 1 ; j <= text_length ; j++)
+			{
+				int cost = (search.charAt(i - 1) == key.charAt(offset + j - 1)) ? 0 : 1 ;
+				current_row[j] = Math.min(Math.min(current_row[j - 1] + 1, previous_row[j] + 1), previous_row[j - 1] + cost) ;
+				if((i > 1) && (j > 1) && (search.charAt(i - 1) == key.charAt(offset + j - 2)) && (search.charAt(i - 2) == key.charAt(offset + j - 1)))
+					current_row[j] = Math.min(current_row[j], before_previous_row[j - 2] + 1) ;
+				row_minimum = Math.min(row_minimum, current_row[j]) ;
+			}
+			if(row_minimum > max_distance) return max_distance + 1 ;
+			int[] swap = before_previous_row ;
+			before_previous_row = previous_row ;
+			previous_row = current_row ;
+			current_row = swap ;
+		}
+
+		// Return the smallest distance with any beginning of the word
+		int distance = max_distance + 1 ;
+		for(int j = 0 ; j <= text_length ; j++) distance = Math.min(distance, previous_row[j]) ;
+		return distance ;
+	}
+
+
+	/**
+	 * Return the number of typing errors allowed for a search of the given length.
+	 */
+	private static int getMaxDistance(int search_length)
+	{
+		if(search_length < 3) return 0 ;
+		if(search_length < 6) return 1 ;
+		return 2 ;
+	}
+
+
+	/**
+	 * Keep the given rank for an application if it is better than the current one.
+	 */
+	private void keepBestRank(int position, int rank)
+	{
+		if(rank < ranks[position]) ranks[position] = rank ;
+	}
+
+
+	/**
+	 * Return the first index of a sorted table whose text does not start before the search
+	 * (or, if <code>after</code> is set, whose text starts after the search).
+	 */
+	private int lowerBound(int[] positions, int[] offsets, String search, boolean after)
+	{
+		int start = 0 ;
+		int end = positions.length ;
+		while(start < end)
+		{
+			int middle = (start + end) >>> 1 ;
+			String text = (offsets == null) ? initials[positions[middle]] : keys[positions[middle]] ;
+			int offset = (offsets == null) ? 0 : offsets[middle] ;
+			int comparison = comparePrefix(text, offset, search) ;
+			if((comparison < 0) || (after && (comparison == 0))) start = middle + 1 ;
+				else end = middle ;
+		}
+		return start ;
+	}
+
+
+	/**
+	 * Compare the text starting at the given offset with the search, considering only as many characters as the search.
+	 */
+	private static int comparePrefix(String text, int offset, String search)
+	{
+		int length = Math.min(text.length() - offset, search.length()) ;
+		for(int i = 0 ; i < length ; i++)
+		{
+			int difference = text.charAt(offset + i) - search.charAt(i) ;
+			if(difference != 0) return difference ;
+		}
+		return (length < search.length()) ? -1 : 0 ;
+	}
+
+
+	/**
+	 * Compare the texts of two keys starting at the given offsets.
+	 */
+	private int compareSuffixes(int position1, int offset1, int position2, int offset2)
+	{
+		String key1 = keys[position1] ;
+		String key2 = keys[position2] ;
+		int length = Math.min(key1.length() - offset1, key2.length() - offset2) ;
+		for(int i = 0 ; i < length ; i++)
+		{
+			int difference = key1.charAt(offset1 + i) - key2.charAt(offset2 + i) ;
+			if(difference != 0) return difference ;
+		}
+		return (key1.length() - offset1) - (key2.length() - offset2) ;
+	}
+}
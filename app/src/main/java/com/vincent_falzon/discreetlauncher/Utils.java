@@ -27,6 +27,8 @@ import android.content.Context ;
 import android.content.SharedPreferences ;
 import android.util.Log ;
 import android.view.View ;
+import android.os.Handler ;
+import android.os.Looper ;
 import android.widget.Toast ;
 import com.vincent_falzon.discreetlauncher.core.Application ;
 import com.vincent_falzon.discreetlauncher.settings.ColorPickerDialog ;
@@ -46,7 +48,8 @@ public abstract class Utils
 	public static void displayToast(Context context, int message)
 	{
 		if(context == null) return ;
-		Toast.makeText(context.getApplicationContext(), message, Toast.LENGTH_SHORT).show() ;
+		final Context applicationContext = context.getApplicationContext() ;
+		runOnMainThread(() -> Toast.makeText(applicationContext, message, Toast.LENGTH_SHORT).show()) ;
 	}
 
 
@@ -56,7 +59,18 @@ public abstract class Utils
 	public static void displayLongToast(Context context, String message)
 	{
 		if(context == null) return ;
-		Toast.makeText(context.getApplicationContext(), message, Toast.LENGTH_LONG).show() ;
+		final Context applicationContext = context.getApplicationContext() ;
+		runOnMainThread(() -> Toast.makeText(applicationContext, message, Toast.LENGTH_LONG).show()) ;
+	}
+
+
+	/**
+	 * Run the given action on the UI thread (immediately if already called from it).
+	 */
+	public static void runOnMainThread(Runnable action)
+	{
+		if(Looper.myLooper() == Looper.getMainLooper()) action.run() ;
+			else new Handler(Looper.getMainLooper()).post(action) ;
 	}
 
 
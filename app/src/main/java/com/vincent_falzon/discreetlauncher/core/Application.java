@@ -32,19 +32,30 @@ import android.graphics.drawable.Drawable ;
 import android.net.Uri ;
 import android.os.UserHandle ;
 import android.view.View ;
+import java.text.CollationKey ;
+import java.text.Collator ;
+import java.util.Locale ;
 
 /**
  * Represent an Android application (userHandle is used to identify work profile apps).
  */
 public class Application
 {
+	// Shared collator used to sort applications by display name
+	private static Collator sortCollator = null ;
+	private static Locale sort_locale = null ;
+
 	// Attributes
 	String display_name ;
+	private final String original_name ;
 	String name ;
 	String component_info ;
 	final String apk ;
 	final UserHandle userHandle ;
-	Drawable icon ;
+	volatile Drawable icon ;
+	private IconLoader iconLoader ;
+	private CollationKey sortKey ;
+	private Collator sortKeyCollator ;
 
 
 	/**
@@ -54,6 +65,7 @@ public class Application
 	{
 		// Initializations
 		this.display_name = display_name ;
+		original_name = display_name ;
 		this.name = name ;
 		this.apk = apk ;
 		this.icon = icon ;
@@ -75,12 +87,61 @@ public class Application
 	}
 
 
+	/**
+	 * Return the name of the application before it was renamed by the user.
+	 */
+	public String getOriginalName()
+	{
+		return original_name ;
+	}
+
+
 	/**
 	 * Set the display name of the application.
 	 */
 	public void setDisplayName(String new_name)
 	{
 		display_name = new_name ;
+		synchronized(Application.class)
+		{
+			sortKey = null ;
+		}
+	}
+
+
+	/**
+	 * Return the key used to sort the application by display name (computed again only after a rename).
+	 */
+	public CollationKey getSortKey()
+	{
+		synchronized(Application.class)
+		{
+			// Prepare the collator for the current language (only when it changes)
+			Locale locale = Locale.getDefault() ;
+			if(!locale.equals(sort_locale))
+				{
+					sortCollator = Collator.getInstance(locale) ;
+					sortCollator.setStrength(Collator.PRIMARY) ;
+					sort_locale = locale ;
+				}
+
+			// Compute the key if it is missing or has been built for another language
+			if((sortKey == null) || (sortKeyCollator != sortCollator))
+				{
+					sortKey = sortCollator.getCollationKey(display_name) ;
+					sortKeyCollator = sortCollator ;
+				}
+			return sortKey ;
+		}
+	}
+
+
+	/**
+	 * Compare two applications based on their display names (used to sort lists in alphabetical order).
+	 */
+	public static int compareByDisplayName(Application application1, Application application2)
+	{
+		return application1.getSortKey().compareTo(application2.getSortKey()) ;
 	}
 
 
@@ -112,9 +173,19 @@ public class Application
 
 
 	/**
-	 * Return the icon of the application.
+	 * Return the icon of the application (loaded now if it was not yet, see <code>isIconLoaded()</code>).
 	 */
 	public Drawable getIcon()
+	{
+		if(icon == null) loadIcon() ;
+		return icon ;
+	}
+
+
+	/**
+	 * Return the icon of the application if it is already loaded, <code>null</code> otherwise.
+	 */
+	public Drawable getLoadedIcon()
 	{
 		return icon ;
 	}
@@ -129,6 +200,35 @@ public class Application
 	}
 
 
+	/**
+	 * Set the recipe used to load the icon when it is needed for the first time (forgets the current icon).
+	 */
+	public void setIconLoader(IconLoader loader)
+	{
+		iconLoader = loader ;
+		icon = null ;
+	}
+
+
+	/**
+	 * Return <code>true</code> if the icon can be displayed without loading it first.
+	 */
+	public boolean isIconLoaded()
+	{
+		return (icon != null) || (iconLoader == null) ;
+	}
+
+
+	/**
+	 * Load the icon using its recipe if it is not loaded yet (can be called from a background thread).
+	 */
+	public synchronized void loadIcon()
+	{
+		IconLoader loader = iconLoader ;
+		if((icon == null) && (loader != null)) icon = loader.load() ;
+	}
+
+
 	/**
 	 * Start the application as a new task.
 	 * @return <code>true</code> if the application was found, <code>false</code> otherwise
@@ -144,6 +244,7 @@ public class Application
 					// Try to launch the work profile application
 					LauncherApps launcherApps = (LauncherApps)context.getSystemService(Context.LAUNCHER_APPS_SERVICE) ;
 					launcherApps.startMainActivity(new ComponentName(apk, name), userHandle, null, null) ;
+					LaunchHistory.recordLaunch(component_info) ;
 					return true ;
 				}
 
@@ -168,6 +269,7 @@ public class Application
 					packageIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK) ;
 					context.startActivity(packageIntent) ;
 				}
+			LaunchHistory.recordLaunch(component_info) ;
 			return true ;
 		}
 		catch(Exception exception)
@@ -198,4 +300,15 @@ public class Application
 		settingsIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK) ;
 		context.startActivity(settingsIntent) ;
 	}
+
+
+	// ---------------------------------------------------------------------------------------------
+
+	/**
+	 * Recipe used to load the icon of an application when it is needed for the first time.
+	 */
+	public interface IconLoader
+	{
+		Drawable load() ;
+	}
 }
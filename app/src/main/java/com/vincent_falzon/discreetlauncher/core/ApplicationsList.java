@@ -23,10 +23,13 @@ package com.vincent_falzon.discreetlauncher.core ;
  */
 
 // Imports
+import android.content.ComponentName ;
 import android.content.Context ;
+import android.content.Intent ;
 import android.content.SharedPreferences ;
 import android.content.pm.LauncherActivityInfo ;
 import android.content.pm.LauncherApps ;
+import android.content.pm.PackageInfo ;
 import android.content.pm.PackageManager ;
 import android.content.res.Resources ;
 import android.graphics.Bitmap ;
@@ -37,20 +40,38 @@ import android.graphics.Paint ;
 import android.graphics.PorterDuff ;
 import android.graphics.drawable.BitmapDrawable ;
 import android.graphics.drawable.Drawable ;
+import android.os.Process ;
 import android.os.UserHandle ;
 import android.os.UserManager ;
 import androidx.appcompat.content.res.AppCompatResources ;
 import androidx.core.content.ContextCompat ;
+import androidx.core.content.pm.PackageInfoCompat ;
 import androidx.preference.PreferenceManager ;
 import com.vincent_falzon.discreetlauncher.Constants ;
 import com.vincent_falzon.discreetlauncher.R ;
 import com.vincent_falzon.discreetlauncher.Utils ;
 import com.vincent_falzon.discreetlauncher.settings.ColorPickerDialog ;
 import com.vincent_falzon.discreetlauncher.storage.* ;
-import java.text.Collator ;
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.io.DataInputStream ;
+import java.io.DataOutputStream ;
+import java.io.File ;
+import java.io.IOException ;
 import java.util.ArrayList ;
 import java.util.Collections ;
+import java.util.HashMap ;
+import java.util.HashSet ;
+import java.util.Iterator ;
 import java.util.List ;
+import java.util.concurrent.ExecutionException ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.Future ;
+import java.util.concurrent.LinkedBlockingQueue ;
+import java.util.concurrent.ThreadPoolExecutor ;
+import java.util.concurrent.TimeUnit ;
+import java.util.concurrent.atomic.AtomicLong ;
 
 /**
  * Provide and manage lists of applications.
@@ -59,13 +80,34 @@ public class ApplicationsList
 {
 	// Constants
 	private static final String TAG = "ApplicationsList" ;
+	private static final int SNAPSHOT_FORMAT_VERSION = 2 ;
+	private static final byte SNAPSHOT_APPLICATION = 0 ;
+	private static final byte SNAPSHOT_MENU = 1 ;
+	private static final byte SNAPSHOT_SHORTCUT = 2 ;
+	private static final byte SNAPSHOT_SEARCH = 3 ;
+	private static final byte SNAPSHOT_FOLDER = 4 ;
 
 	// Attributes
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor() ;
+	private static final ThreadPoolExecutor iconsLoader = createIconsLoader() ;
+	private static volatile IconPack iconPack1 ;
+	private static volatile IconPack iconPack2 ;
+	private static final HashSet<String> outdatedIconPacks = new HashSet<>() ;
 	private final ArrayList<Application> drawer ;
 	private final ArrayList<Application> hidden ;
 	private final ArrayList<Application> favorites ;
+	private final ArrayList<Runnable> updateCallbacks ;
+	private final HashSet<String> favoritesComponents ;
+	private final HashMap<String, String> foldersComponents ;
+	private List<Application> applicationsWithFolders ;
+	private List<Application> applicationsWithoutFolders ;
 	private final Paint grayscalePaint ;
+	private UpdateListener updateListener ;
 	private int icon_size ;
+	private String icons_generation ;
+	private boolean loaded ;
+	private boolean update_running ;
+	private boolean update_pending ;
 
 
 	/**
@@ -77,6 +119,15 @@ public class ApplicationsList
 		drawer = new ArrayList<>() ;
 		hidden = new ArrayList<>() ;
 		favorites = new ArrayList<>() ;
+		updateCallbacks = new ArrayList<>() ;
+		favoritesComponents = new HashSet<>() ;
+		foldersComponents = new HashMap<>() ;
+		applicationsWithFolders = null ;
+		applicationsWithoutFolders = null ;
+		updateListener = null ;
+		loaded = false ;
+		update_running = false ;
+		update_pending = false ;
 
 		// Initialize the grayscale Paint used by the icon color filter
 		ColorMatrix colorMatrix = new ColorMatrix() ;
@@ -87,35 +138,148 @@ public class ApplicationsList
 
 
 	/**
-	 * Update both the complete application list and the favorite applications list.
+	 * Set the listener informed each time a rebuild of the list is published.
 	 */
-	public void update(Context context)
+	public void setUpdateListener(UpdateListener listener)
+	{
+		updateListener = listener ;
+	}
+
+
+	/**
+	 * Return <code>true</code> if the list has been built at least once, <code>false</code> otherwise.
+	 */
+	public boolean isLoaded()
+	{
+		return loaded ;
+	}
+
+
+	/**
+	 * Return <code>true</code> if a rebuild of the list is in progress, <code>false</code> otherwise.
+	 */
+	public boolean isUpdating()
+	{
+		return update_running ;
+	}
+
+
+	/**
+	 * Rebuild the list in the background and publish it on the UI thread (to call from the UI thread).
+	 * Requests received during a rebuild are merged into a single new rebuild started after it.
+	 * @param callback Action to run on the UI thread once the new list is published (can be <code>null</code>)
+	 */
+	public void requestUpdate(Context context, Runnable callback)
+	{
+		// Remember the action to run after the update
+		if(callback != null) updateCallbacks.add(callback) ;
+
+		// If an update is already running, only remember that another one is needed after it
+		if(update_running)
+			{
+				update_pending = true ;
+				return ;
+			}
+		update_running = true ;
+
+		// The actions waiting so far will run after this rebuild, those added meanwhile after the next one
+		final ArrayList<Runnable> callbacks = new ArrayList<>(updateCallbacks) ;
+		updateCallbacks.clear() ;
+
+		// Build the new lists in the background, then publish them on the UI thread
+		final boolean first_update = !loaded ;
+		executor.execute(() -> {
+				// For the first update, display the last saved state of the list while the real one is built
+				if(first_update)
+					{
+						ApplicationsList snapshot = new ApplicationsList() ;
+						if(snapshot.readSnapshot(context)) Utils.runOnMainThread(() -> publishSnapshot(snapshot)) ;
+					}
+
+				// Build the list and save its state for the next start
+				ApplicationsList result = new ApplicationsList() ;
+				result.update(context) ;
+				result.writeSnapshot(context) ;
+				Utils.runOnMainThread(() -> publish(context, result, callbacks)) ;
+			}) ;
+	}
+
+
+	/**
+	 * Display the list restored from the snapshot if the real one is not ready yet (called on the UI thread).
+	 */
+	private void publishSnapshot(ApplicationsList snapshot)
+	{
+		if(loaded) return ;
+		swapLists(snapshot) ;
+		if(updateListener != null) updateListener.onListUpdated() ;
+	}
+
+
+	/**
+	 * Replace the content of the lists by the result of a rebuild (called on the UI thread).
+	 */
+	private void publish(Context context, ApplicationsList result, ArrayList<Runnable> callbacks)
+	{
+		// Swap the content of all lists at once
+		update_running = false ;
+		swapLists(result) ;
+
+		// Inform the listener and run the actions waiting for this update
+		if(updateListener != null) updateListener.onListUpdated() ;
+		for(Runnable callback : callbacks) callback.run() ;
+
+		// If other updates were requested meanwhile, start a new rebuild as this result may not include them
+		if(update_pending)
+			{
+				update_pending = false ;
+				requestUpdate(context, null) ;
+			}
+	}
+
+
+	/**
+	 * Replace the content of all lists by those of another list at once.
+	 */
+	private void swapLists(ApplicationsList result)
 	{
-		// Initializations
-		Utils.logInfo(TAG, "updating the list of apps") ;
-		String apk_discreet_launcher = context.getPackageName() ;
-		IconPack iconPack1 = new IconPack(context, Constants.ICON_PACK) ;
-		IconPack iconPack2 = new IconPack(context, Constants.ICON_PACK_SECONDARY) ;
 		drawer.clear() ;
+		drawer.addAll(result.drawer) ;
+		hidden.clear() ;
+		hidden.addAll(result.hidden) ;
+		favorites.clear() ;
+		favorites.addAll(result.favorites) ;
+		invalidateApplications() ;
+		indexFavorites() ;
+		indexFolders() ;
+		icon_size = result.icon_size ;
+		icons_generation = result.icons_generation ;
+		loaded = true ;
+	}
 
-		// Retrieve the icon size in pixels
-		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
-		icon_size = Utils.getIconSize(context, settings) ;
 
-		// Check if a color tint must be applied to icons and retrieve it if needed
-		String color_tint_setting = settings.getString(Constants.ICON_COLOR_FILTER, Constants.COLOR_TRANSPARENT) ;
-		int color_tint ;
-		if(color_tint_setting.equals(Constants.COLOR_TRANSPARENT)) color_tint = 0 ;
-			else color_tint = ColorPickerDialog.convertHexadecimalColorToInt(color_tint_setting) ;
+	/**
+	 * Build both the complete application list and the favorite applications list (in the background).
+	 */
+	private void update(Context context)
+	{
+		// Initializations
+		Utils.logInfo(TAG, "updating the list of apps") ;
+		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
+		int color_tint = prepareIcons(context, settings) ;
+		drawer.clear() ;
 
 		// Retrieve the list of user profiles
 		UserManager userManager = (UserManager)context.getSystemService(Context.USER_SERVICE) ;
 		List<UserHandle> userProfiles = userManager.getUserProfiles() ;
-		PackageManager apkManager = context.getPackageManager() ;
+
+		// Retrieve the version of all packages at once, to know which rendered icons are still valid
+		HashMap<String, PackageInfo> packages = new HashMap<>() ;
+		for(PackageInfo packageInfo : context.getPackageManager().getInstalledPackages(0))
+			packages.put(packageInfo.packageName, packageInfo) ;
+		HashSet<String> renderedIcons = new HashSet<>() ;
 
 		// Browse all user profiles
-		Drawable icon ;
-		Resources resources = context.getResources() ;
 		LauncherApps launcherApps = (LauncherApps)context.getSystemService(Context.LAUNCHER_APPS_SERVICE) ;
 		for(UserHandle profile : userProfiles)
 		{
@@ -125,66 +289,620 @@ public class ApplicationsList
 			// Browse all the activities of the current profile
 			for(LauncherActivityInfo activity : launcherApps.getActivityList(null, profile))
 			{
-				// Retrieve information about the application
-				String display_name = activity.getLabel().toString() ;
-				String name = activity.getName() ;
-				String apk = activity.getApplicationInfo().packageName ;
-
-				// Try to find the icon in the packs, use the default icon if not found
-				icon = searchInMultipleIconPacks(iconPack1, iconPack2, apk, name) ;
-				if(icon == null)
-					{
-						// Check if a color tint must be applied on the default icon
-						if(color_tint == 0) icon = activity.getIcon(0) ;
-							else icon = applyColorTint(resources, activity.getIcon(0), color_tint) ;
-					}
-
-				// Add a badge to the chosen icon if the app is in a work profile
-				if(userHandle != null) icon = apkManager.getUserBadgedIcon(icon, profile) ;
-
-				// Resize the icon to the user-defined size
-				icon.setBounds(0, 0, icon_size, icon_size) ;
-
-				// Check if the application is the launcher to provide menu access using its icon
-				Application application ;
-				if(apk.equals(apk_discreet_launcher))
-					application = new Menu(display_name, name, apk, icon) ;
-				else application = new Application(display_name, name, apk, icon, userHandle) ;
-
-				// Add the application to the list
+				// Add the application to the list, its icon will be loaded when needed
+				Application application = createApplication(context, activity, userHandle) ;
+				PackageInfo packageInfo = packages.get(activity.getApplicationInfo().packageName) ;
+				application.setIconLoader(createIconLoader(context, application, activity, profile, color_tint, packageInfo)) ;
+				renderedIcons.add(IconCache.getEntryName(application.getComponentInfo(), getVersionCode(packageInfo))) ;
 				drawer.add(application) ;
 			}
 		}
 
+		// Remove the rendered icons of applications updated, disabled or uninstalled since
+		IconCache.pruneDiskFolder(icons_generation, renderedIcons) ;
+
 		// Add the shortcuts to the list as applications
 		loadShortcuts(context) ;
 
+		// Index the applications by ComponentInfo to apply the user customizations
+		HashMap<String, Application> index = indexByComponentInfo(drawer) ;
+
 		// Rename applications if needed
-		renameApplications() ;
+		renameApplications(index) ;
 
 		// Sort the applications list in alphabetical order based on display name
-		Collator collator = Collator.getInstance() ;
-		collator.setStrength(Collator.PRIMARY) ;
-		Collections.sort(drawer, (application1, application2) -> collator.compare(application1.getDisplayName(), application2.getDisplayName())) ;
+		long sort_start = System.nanoTime() ;
+		Collections.sort(drawer, Application::compareByDisplayName) ;
+		Utils.logDebug(TAG, drawer.size() + " apps sorted in " + ((System.nanoTime() - sort_start) / 1000) + "us") ;
 
 		// Check if the interface is reversed
 		boolean reversed = settings.getBoolean(Constants.REVERSE_INTERFACE, false) ;
 
 		// Add the search icon at the beginning or end of the list (based on layout)
-		Drawable searchIcon = searchInMultipleIconPacks(iconPack1, iconPack2, Constants.APK_SEARCH, Constants.APK_SEARCH) ;
-		if(searchIcon == null) searchIcon = AppCompatResources.getDrawable(context, R.drawable.icon_search) ;
-		if(searchIcon != null) searchIcon.setBounds(0, 0, icon_size, icon_size) ;
-		if(reversed) drawer.add(new Search(context.getString(R.string.search_app_name), searchIcon)) ;
-			else drawer.add(0, new Search(context.getString(R.string.search_app_name), searchIcon)) ;
+		Search search = createSearch(context) ;
+		if(reversed) drawer.add(search) ;
+			else drawer.add(0, search) ;
+		index.put(search.getComponentInfo(), search) ;
 
 		// Hide application based on the internal file
-		manageHiddenApplications() ;
+		manageHiddenApplications(index) ;
 
 		// Prepare folders according to files
-		prepareFolders(context, reversed, iconPack1, iconPack2) ;
+		prepareFolders(context, reversed, index) ;
 
 		// Update the favorites applications list
+		updateFavorites(index) ;
+
+		// Never load the icons of hidden applications to lower memory footprint
+		for(Application application : hidden) application.setIconLoader(null) ;
+
+		// Load the icons of favorites as they are displayed first, the others are loaded when displayed
+		loadIcons(favorites) ;
+
+		// Save the indexes of the icon packs if they have been built or completed
+		iconPack1.saveIndex() ;
+		iconPack2.saveIndex() ;
+	}
+
+
+	/**
+	 * Load the icon packs and the icons settings, then return the color tint to apply on icons.
+	 */
+	private int prepareIcons(Context context, SharedPreferences settings)
+	{
+		// Load the selected icon packs (replaced at once as icons may be loaded from them meanwhile)
+		iconPack1 = loadIconPack(context, iconPack1, Constants.ICON_PACK) ;
+		iconPack2 = loadIconPack(context, iconPack2, Constants.ICON_PACK_SECONDARY) ;
+		outdatedIconPacks.clear() ;
+
+		// Retrieve the icon size in pixels and check if a color tint must be applied to icons
+		icon_size = Utils.getIconSize(context, settings) ;
+		int color_tint = getColorTint(settings) ;
+
+		// Select the icons rendered with the current settings among those stored on disk
+		icons_generation = IconCache.getGeneration(icon_size, iconPack1.getPackName(), iconPack1.getVersionCode(),
+				iconPack2.getPackName(), iconPack2.getVersionCode(), color_tint) ;
+		IconCache.prepareDiskFolder(context, icons_generation) ;
+		return color_tint ;
+	}
+
+
+	/**
+	 * Create the Search application with its icon.
+	 */
+	private Search createSearch(Context context)
+	{
+		Drawable searchIcon = searchInMultipleIconPacks(iconPack1, iconPack2, Constants.APK_SEARCH, Constants.APK_SEARCH) ;
+		if(searchIcon == null) searchIcon = AppCompatResources.getDrawable(context, R.drawable.icon_search) ;
+		if(searchIcon != null) searchIcon.setBounds(0, 0, icon_size, icon_size) ;
+		return new Search(context.getString(R.string.search_app_name), searchIcon) ;
+	}
+
+
+	/**
+	 * Save the state of the list (order, folders, hidden, favorites and names) to restore it at next start.
+	 */
+	private void writeSnapshot(Context context)
+	{
+		try
+		{
+			// Write the applications of the drawer, then the hidden ones
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream() ;
+			DataOutputStream output = new DataOutputStream(buffer) ;
+			UserManager userManager = (UserManager)context.getSystemService(Context.USER_SERVICE) ;
+			output.writeInt(SNAPSHOT_FORMAT_VERSION) ;
+			writeSnapshotEntries(output, userManager, drawer) ;
+			writeSnapshotEntries(output, userManager, hidden) ;
+
+			// Write the ComponentInfo of favorites
+			output.writeInt(favorites.size()) ;
+			for(Application application : favorites) output.writeUTF(application.getComponentInfo()) ;
+			output.close() ;
+
+			// Save the snapshot in one write
+			new InternalFileBIN(Constants.FILE_APPLICATIONS_SNAPSHOT).writeAllBytes(buffer.toByteArray()) ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while preparing the snapshot
+			Utils.logError(TAG, exception.getMessage()) ;
+		}
+	}
+
+
+	/**
+	 * Write a list of applications in the snapshot (including the content of folders).
+	 */
+	private static void writeSnapshotEntries(DataOutputStream output, UserManager userManager, ArrayList<Application> applications) throws IOException
+	{
+		output.writeInt(applications.size()) ;
+		for(Application application : applications)
+		{
+			// Write the type of the application and its details
+			if(application instanceof Search) output.writeByte(SNAPSHOT_SEARCH) ;
+				else if(application instanceof Folder)
+				{
+					output.writeByte(SNAPSHOT_FOLDER) ;
+					output.writeUTF(application.getDisplayName()) ;
+					output.writeInt(((Folder)application).getColor()) ;
+					writeSnapshotEntries(output, userManager, ((Folder)application).getApplications()) ;
+				}
+				else if(application instanceof Shortcut)
+				{
+					output.writeByte(SNAPSHOT_SHORTCUT) ;
+					output.writeUTF(application.getDisplayName()) ;
+					output.writeUTF(application.getName()) ;
+				}
+				else
+				{
+					output.writeByte((application instanceof Menu) ? SNAPSHOT_MENU : SNAPSHOT_APPLICATION) ;
+					output.writeUTF(application.getDisplayName()) ;
+					output.writeUTF(application.getOriginalName()) ;
+					output.writeUTF(application.getName()) ;
+					output.writeUTF(application.getApk()) ;
+					output.writeLong((application.userHandle == null) ? 0 : userManager.getSerialNumberForUser(application.userHandle)) ;
+				}
+		}
+	}
+
+
+	/**
+	 * Restore the state of the list saved by the last build, without browsing the installed applications.
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	private boolean readSnapshot(Context context)
+	{
+		// Check if a snapshot has been saved
+		long start_time = System.nanoTime() ;
+		byte[] content = new InternalFileBIN(Constants.FILE_APPLICATIONS_SNAPSHOT).readAllBytes() ;
+		if(content == null) return false ;
+
+		// Prepare the icons (they will be loaded when displayed) and the shortcuts
+		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
+		int color_tint = prepareIcons(context, settings) ;
+		HashMap<String, Application> shortcuts = new HashMap<>() ;
+		loadShortcuts(context) ;
+		for(Application shortcut : drawer) shortcuts.put(shortcut.getName(), shortcut) ;
+		drawer.clear() ;
+
+		try
+		{
+			// Check the version of the snapshot
+			DataInputStream input = new DataInputStream(new ByteArrayInputStream(content)) ;
+			if(input.readInt() != SNAPSHOT_FORMAT_VERSION) return false ;
+
+			// Restore the applications of the drawer and the hidden ones
+			HashMap<String, Application> restored = new HashMap<>() ;
+			readSnapshotEntries(context, input, drawer, restored, shortcuts, color_tint, true) ;
+			readSnapshotEntries(context, input, hidden, restored, shortcuts, color_tint, false) ;
+
+			// Restore the favorites
+			int count = input.readInt() ;
+			for(int i = 0 ; i < count ; i++)
+			{
+				Application application = restored.get(input.readUTF()) ;
+				if(application != null) favorites.add(application) ;
+			}
+		}
+		catch(IOException exception)
+		{
+			// The snapshot is not readable
+			Utils.logError(TAG, exception.getMessage()) ;
+			return false ;
+		}
+
+		// Load the icons of favorites as they are displayed first
+		loadIcons(favorites) ;
+		Utils.logInfo(TAG, "snapshot restored in " + ((System.nanoTime() - start_time) / 1000000) + "ms") ;
+		return true ;
+	}
+
+
+	/**
+	 * Read a list of applications from the snapshot (including the content of folders).
+	 */
+	private void readSnapshotEntries(Context context, DataInputStream input, ArrayList<Application> applications, HashMap<String, Application> restored,
+			HashMap<String, Application> shortcuts, int color_tint, boolean with_icons) throws IOException
+	{
+		UserManager userManager = (UserManager)context.getSystemService(Context.USER_SERVICE) ;
+		int count = input.readInt() ;
+		for(int i = 0 ; i < count ; i++)
+		{
+			// Restore the application based on its type
+			Application application ;
+			byte type = input.readByte() ;
+			if(type == SNAPSHOT_SEARCH) application = createSearch(context) ;
+				else if(type == SNAPSHOT_FOLDER)
+				{
+					// Restore the folder and its content
+					Folder folder = new Folder(input.readUTF(), null, input.readInt()) ;
+					readSnapshotEntries(context, input, folder.getApplications(), restored, shortcuts, color_tint, with_icons) ;
+					Drawable defaultIconPackIcon = searchInMultipleIconPacks(iconPack1, iconPack2, Constants.APK_FOLDER, Constants.APK_FOLDER) ;
+					folder.setIcon(createFolderIcon(folder, defaultIconPackIcon, AppCompatResources.getDrawable(context, R.drawable.icon_folder))) ;
+					application = folder ;
+				}
+				else if(type == SNAPSHOT_SHORTCUT)
+				{
+					// Restore the shortcut if it still exists
+					String display_name = input.readUTF() ;
+					application = shortcuts.get(input.readUTF()) ;
+					if(application == null) continue ;
+					application.setDisplayName(display_name) ;
+				}
+				else
+				{
+					// Restore the application if its profile still exists
+					String display_name = input.readUTF() ;
+					String original_name = input.readUTF() ;
+					String name = input.readUTF() ;
+					String apk = input.readUTF() ;
+					long serial = input.readLong() ;
+					UserHandle profile = (serial == 0) ? Process.myUserHandle() : userManager.getUserForSerialNumber(serial) ;
+					if(profile == null) continue ;
+					UserHandle userHandle = (serial == 0) ? null : profile ;
+					if(type == SNAPSHOT_MENU) application = new Menu(original_name, name, apk, null) ;
+						else application = new Application(original_name, name, apk, null, userHandle) ;
+					if(!display_name.equals(original_name)) application.setDisplayName(display_name) ;
+					if(with_icons) application.setIconLoader(createSnapshotIconLoader(context, application, profile, color_tint)) ;
+				}
+
+			// Add the application to the list
+			applications.add(application) ;
+			restored.put(application.getComponentInfo(), application) ;
+		}
+	}
+
+
+	/**
+	 * Return the recipe used to load the icon of an application restored from the snapshot.
+	 */
+	private Application.IconLoader createSnapshotIconLoader(Context context, Application application, UserHandle profile, int color_tint)
+	{
+		final Context applicationContext = context.getApplicationContext() ;
+		return () -> {
+				// Retrieve the activity of the application (if it still exists), then load its icon as usual
+				LauncherApps launcherApps = (LauncherApps)applicationContext.getSystemService(Context.LAUNCHER_APPS_SERVICE) ;
+				Intent intent = new Intent(Intent.ACTION_MAIN).addCategory(Intent.CATEGORY_LAUNCHER) ;
+				intent.setComponent(new ComponentName(application.getApk(), application.getName())) ;
+				LauncherActivityInfo activity = launcherApps.resolveActivity(intent, profile) ;
+				if(activity == null) return null ;
+				PackageInfo packageInfo = findPackage(applicationContext, application.getApk()) ;
+				return createIconLoader(applicationContext, application, activity, profile, color_tint, packageInfo).load() ;
+			} ;
+	}
+
+
+	/**
+	 * Update only the applications of the given package (after it has been installed or removed).
+	 */
+	public void updatePackage(Context context, String apk)
+	{
+		// Rebuild the whole list if it is not ready yet, if a rebuild is in progress or if the launcher itself is concerned
+		if(!loaded || update_running || (iconPack1 == null) || (iconPack2 == null) || apk.equals(context.getPackageName()))
+			{
+				requestUpdate(context, null) ;
+				return ;
+			}
+		Utils.logInfo(TAG, "updating the apps of " + apk) ;
+		invalidateApplications() ;
+
+		// Remove the previous applications of the package from the hidden list, the folders and the drawer
+		ArrayList<Folder> modifiedFolders = new ArrayList<>() ;
+		removePackage(hidden, apk) ;
+		for(Application application : drawer)
+			if((application instanceof Folder) && removePackage(((Folder)application).getApplications(), apk))
+				modifiedFolders.add((Folder)application) ;
+		removePackage(drawer, apk) ;
+
+		// Retrieve the settings and the files deciding where the applications should go
+		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
+		boolean reversed = settings.getBoolean(Constants.REVERSE_INTERFACE, false) ;
+		int color_tint = getColorTint(settings) ;
+		ArrayList<String> hidden_file = new InternalFileTXT(Constants.FILE_HIDDEN).readAllLines() ;
+		ArrayList<String> rename_apps_file = new InternalFileTXT(Constants.FILE_RENAME_APPS).readAllLines() ;
+
+		// Retrieve the version of the package, to know if its rendered icons are still valid
+		PackageInfo packageInfo = findPackage(context, apk) ;
+
+		// Browse all user profiles
+		UserManager userManager = (UserManager)context.getSystemService(Context.USER_SERVICE) ;
+		LauncherApps launcherApps = (LauncherApps)context.getSystemService(Context.LAUNCHER_APPS_SERVICE) ;
+		for(UserHandle profile : userManager.getUserProfiles())
+		{
+			// Check if a specific user handle must be stored (for work profile apps)
+			UserHandle userHandle = (userManager.getSerialNumberForUser(profile) == 0) ? null : profile ;
+
+			// Browse only the activities of the package in the current profile
+			for(LauncherActivityInfo activity : launcherApps.getActivityList(apk, profile))
+			{
+				// Create the application and rename it if needed
+				Application application = createApplication(context, activity, userHandle) ;
+				String component_info = application.getComponentInfo() ;
+				if(rename_apps_file != null)
+					for(String line : rename_apps_file)
+						if(line.startsWith(component_info + Constants.SEPARATOR))
+							{
+								application.setDisplayName(line.replace(component_info + Constants.SEPARATOR, "")) ;
+								break ;
+							}
+
+				// Move the application in the hidden list if needed, otherwise prepare the loading of its icon
+				if((hidden_file != null) && hidden_file.contains(component_info))
+					{
+						hidden.add(application) ;
+						continue ;
+					}
+				application.setIconLoader(createIconLoader(context, application, activity, profile, color_tint, packageInfo)) ;
+
+				// Otherwise, add the application to its folder or to the drawer
+				Folder folder = searchFolderContaining(component_info) ;
+				if(folder != null)
+					{
+						folder.addToFolder(application) ;
+						if(!modifiedFolders.contains(folder)) modifiedFolders.add(folder) ;
+					}
+					else insertInDrawer(application, reversed) ;
+			}
+		}
+
+		// Sort the modified folders and update their icon as their number of applications changed
+		if(!modifiedFolders.isEmpty())
+			{
+				Drawable defaultIconPackIcon = searchInMultipleIconPacks(iconPack1, iconPack2, Constants.APK_FOLDER, Constants.APK_FOLDER) ;
+				Drawable baseIcon = AppCompatResources.getDrawable(context, R.drawable.icon_folder) ;
+				for(Folder folder : modifiedFolders)
+				{
+					folder.sortFolder() ;
+					folder.setIcon(createFolderIcon(folder, defaultIconPackIcon, baseIcon)) ;
+				}
+			}
+
+		// Update the folders membership and the favorites applications list
+		indexFolders() ;
 		updateFavorites() ;
+
+		// Save the indexes of the icon packs if they have been completed
+		iconPack1.saveIndex() ;
+		iconPack2.saveIndex() ;
+	}
+
+
+	/**
+	 * Create the application matching the given activity (without icon, see <code>loadIcon()</code>).
+	 */
+	private Application createApplication(Context context, LauncherActivityInfo activity, UserHandle userHandle)
+	{
+		// Retrieve information about the application
+		String display_name = activity.getLabel().toString() ;
+		String name = activity.getName() ;
+		String apk = activity.getApplicationInfo().packageName ;
+
+		// Check if the application is the launcher to provide menu access using its icon
+		if(apk.equals(context.getPackageName())) return new Menu(display_name, name, apk, null) ;
+		return new Application(display_name, name, apk, null, userHandle) ;
+	}
+
+
+	/**
+	 * Return the recipe used to load the icon of the given application when it is needed.
+	 */
+	private Application.IconLoader createIconLoader(Context context, Application application, LauncherActivityInfo activity, UserHandle profile, int color_tint,
+			PackageInfo packageInfo)
+	{
+		// Do not keep a reference to an activity
+		final Context applicationContext = context.getApplicationContext() ;
+		final boolean work_profile = (application.userHandle != null) ;
+
+		// Identify the rendered icon in the cache with everything it depends on
+		final String component_info = application.getComponentInfo() ;
+		final String generation = icons_generation ;
+		final IconPack pack1 = iconPack1 ;
+		final IconPack pack2 = iconPack2 ;
+
+		// Identify the installed version of the package, as its icon may have changed with an update
+		// (if the package is only installed in another profile, rely on the date of its file instead)
+		final long update_time = (packageInfo != null) ? packageInfo.lastUpdateTime : new File(activity.getApplicationInfo().sourceDir).lastModified() ;
+		final long version_code = getVersionCode(packageInfo) ;
+		return () -> loadIcon(applicationContext, activity, profile, work_profile, color_tint, pack1, pack2, generation, component_info, update_time, version_code) ;
+	}
+
+
+	/**
+	 * Return the information about an installed package, or <code>null</code> if not found in the main profile.
+	 */
+	private static PackageInfo findPackage(Context context, String apk)
+	{
+		try
+		{
+			return context.getPackageManager().getPackageInfo(apk, 0) ;
+		}
+		catch(PackageManager.NameNotFoundException exception)
+		{
+			// The package is not installed or only in another profile
+			return null ;
+		}
+	}
+
+
+	/**
+	 * Return the version code of a package, or 0 if unknown.
+	 */
+	private static long getVersionCode(PackageInfo packageInfo)
+	{
+		if(packageInfo == null) return 0 ;
+		return PackageInfoCompat.getLongVersionCode(packageInfo) ;
+	}
+
+
+	/**
+	 * Load the icon of the given activity, ready for display (can be called from several threads).
+	 */
+	private Drawable loadIcon(Context context, LauncherActivityInfo activity, UserHandle profile, boolean work_profile, int color_tint,
+			IconPack pack1, IconPack pack2, String generation, String component_info, long update_time, long version_code)
+	{
+		// Reuse the icon rendered previously if it is still valid (the package may have been updated since)
+		Drawable icon = IconCache.get(context, generation, component_info, update_time, version_code, icon_size) ;
+		if(icon != null) return icon ;
+
+		// Try to find the icon in the packs, use the default icon if not found
+		icon = searchInMultipleIconPacks(pack1, pack2, activity.getApplicationInfo().packageName, activity.getName()) ;
+		if(icon == null)
+			{
+				// Check if a color tint must be applied on the default icon
+				if(color_tint == 0) icon = activity.getIcon(0) ;
+					else icon = applyColorTint(context.getResources(), activity.getIcon(0), color_tint) ;
+			}
+
+		// Add a badge to the chosen icon if the app is in a work profile
+		if(work_profile) icon = context.getPackageManager().getUserBadgedIcon(icon, profile) ;
+
+		// Render the icon at the user-defined size and keep it for the next builds of the list
+		return IconCache.render(context, generation, component_info, update_time, version_code, icon, icon_size) ;
+	}
+
+
+	/**
+	 * Create the pool of threads used to load icons, bounded by the number of available cores.
+	 */
+	private static ThreadPoolExecutor createIconsLoader()
+	{
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors()) ;
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) ;
+		pool.allowCoreThreadTimeOut(true) ;
+		return pool ;
+	}
+
+
+	/**
+	 * Load in parallel the icons of the given applications and wait until they are ready.
+	 */
+	private static void loadIcons(ArrayList<Application> applications)
+	{
+		// Prepare the measure of the icons loading time
+		ArrayList<Future<?>> iconsTasks = new ArrayList<>() ;
+		final AtomicLong icons_tasks_time = new AtomicLong(0) ;
+		long icons_start_time = System.nanoTime() ;
+
+		// Load the icons which are not ready yet
+		for(Application application : applications)
+		{
+			if(application.isIconLoaded()) continue ;
+			iconsTasks.add(iconsLoader.submit(() -> {
+					long task_start_time = System.nanoTime() ;
+					application.loadIcon() ;
+					icons_tasks_time.addAndGet(System.nanoTime() - task_start_time) ;
+				})) ;
+		}
+
+		// Wait until all icons are loaded
+		for(Future<?> task : iconsTasks)
+		{
+			try
+			{
+				task.get() ;
+			}
+			catch(ExecutionException | InterruptedException exception)
+			{
+				// The icon of this application could not be loaded
+				Utils.logError(TAG, exception.getMessage()) ;
+			}
+		}
+		Utils.logInfo(TAG, iconsTasks.size() + " icons loaded in " + ((System.nanoTime() - icons_start_time) / 1000000) + "ms on "
+				+ iconsLoader.getMaximumPoolSize() + " threads (" + (icons_tasks_time.get() / 1000000) + "ms when added one by one)") ;
+	}
+
+
+	/**
+	 * Return the icon last rendered in memory for an application of the list, to display it while its loading
+	 * is checked in the background (avoids a blink after a rebuild), or <code>null</code> if there is none.
+	 */
+	public Drawable getLastRenderedIcon(Context context, Application application)
+	{
+		if(icons_generation == null) return null ;
+		return IconCache.getLastRendered(context, icons_generation, application.getComponentInfo(), icon_size) ;
+	}
+
+
+	/**
+	 * Load the icon of an application in the background, then run the callback on the UI thread.
+	 */
+	public static void loadIconInBackground(Application application, Runnable callback)
+	{
+		iconsLoader.execute(() -> {
+				application.loadIcon() ;
+				Utils.runOnMainThread(callback) ;
+			}) ;
+	}
+
+
+	/**
+	 * Return the color tint to apply on icons, or 0 if there is none.
+	 */
+	private static int getColorTint(SharedPreferences settings)
+	{
+		String color_tint_setting = settings.getString(Constants.ICON_COLOR_FILTER, Constants.COLOR_TRANSPARENT) ;
+		if(color_tint_setting.equals(Constants.COLOR_TRANSPARENT)) return 0 ;
+		return ColorPickerDialog.convertHexadecimalColorToInt(color_tint_setting) ;
+	}
+
+
+	/**
+	 * Remove the applications of the given package from a list.
+	 * @return <code>true</code> if at least one application was removed, <code>false</code> otherwise
+	 */
+	private static boolean removePackage(ArrayList<Application> list, String apk)
+	{
+		boolean removed = false ;
+		Iterator<Application> iterator = list.iterator() ;
+		while(iterator.hasNext())
+		{
+			Application application = iterator.next() ;
+			if((application instanceof Folder) || !application.getApk().equals(apk)) continue ;
+			iterator.remove() ;
+			removed = true ;
+		}
+		return removed ;
+	}
+
+
+	/**
+	 * Return the folder whose file contains the given ComponentInfo, or <code>null</code> if there is none.
+	 */
+	private Folder searchFolderContaining(String component_info)
+	{
+		for(Application application : drawer)
+			if(application instanceof Folder)
+				{
+					ArrayList<String> folder_file = new InternalFileTXT(((Folder)application).getFileName()).readAllLines() ;
+					if((folder_file != null) && folder_file.contains(component_info)) return (Folder)application ;
+				}
+		return null ;
+	}
+
+
+	/**
+	 * Insert an application in the drawer at its alphabetical position among the other applications.
+	 */
+	private void insertInDrawer(Application application, boolean reversed)
+	{
+		// Find the part of the drawer containing the applications (folders and search are on one side)
+		int start = 0 ;
+		int end = drawer.size() ;
+		if(reversed)
+			{
+				end = 0 ;
+				while((end < drawer.size()) && !(drawer.get(end) instanceof Folder) && !(drawer.get(end) instanceof Search)) end++ ;
+			}
+			else while((start < end) && ((drawer.get(start) instanceof Folder) || (drawer.get(start) instanceof Search))) start++ ;
+
+		// Search the position of the application with a binary search on display names
+		while(start < end)
+		{
+			int middle = (start + end) >>> 1 ;
+			if(Application.compareByDisplayName(drawer.get(middle), application) <= 0) start = middle + 1 ;
+				else end = middle ;
+		}
+		drawer.add(start, application) ;
 	}
 
 
@@ -222,6 +940,16 @@ public class ApplicationsList
 	 * Update the favorites applications list based on the favorites file and the complete list.
 	 */
 	public void updateFavorites()
+	{
+		updateFavorites(indexByComponentInfo(getApplications(true))) ;
+		indexFavorites() ;
+	}
+
+
+	/**
+	 * Update the favorites applications list based on the favorites file and the index of the complete list.
+	 */
+	private void updateFavorites(HashMap<String, Application> index)
 	{
 		// Initializations
 		favorites.clear() ;
@@ -229,30 +957,48 @@ public class ApplicationsList
 		if(favorites_file == null) return ;
 
 		// Convert the favorites from the name format to ComponentInfo format if needed
-		favorites_file = convertComponentInfo(Constants.FILE_FAVORITES, favorites_file) ;
+		favorites_file = convertComponentInfo(Constants.FILE_FAVORITES, favorites_file, index) ;
 
-		// Browse the internal file
+		// Browse the internal file and add the applications found to the favorites (only once)
+		HashSet<Application> added = new HashSet<>() ;
 		for(String line : favorites_file)
 		{
-			// Search the ComponentInfo in the applications list
-			for(Application application : getApplications(true))
-				if(application.getComponentInfo().equals(line))
-					{
-						// Add the application to the favorites and move to the next line
-						if(!favorites.contains(application)) favorites.add(application) ;
-						break ;
-					}
+			Application application = index.get(line) ;
+			if((application != null) && added.add(application)) favorites.add(application) ;
 		}
 	}
 
 
 	/**
-	 * Prepare folders according to the folders files.
+	 * Return an index of the given applications by ComponentInfo.
+	 */
+	private static HashMap<String, Application> indexByComponentInfo(List<Application> applications)
+	{
+		HashMap<String, Application> index = new HashMap<>() ;
+		for(Application application : applications) index.put(application.getComponentInfo(), application) ;
+		return index ;
+	}
+
+
+	/**
+	 * Remove the given applications from the drawer in a single pass.
+	 */
+	private void removeFromDrawer(HashSet<Application> applications)
+	{
+		if(applications.isEmpty()) return ;
+		Iterator<Application> iterator = drawer.iterator() ;
+		while(iterator.hasNext())
+			if(applications.contains(iterator.next())) iterator.remove() ;
+	}
+
+
+	/**
+	 * Prepare folders according to the folders files (the index is updated with the folders).
 	 */
-	private void prepareFolders(Context context, boolean reversed, IconPack iconPack1, IconPack iconPack2)
+	private void prepareFolders(Context context, boolean reversed, HashMap<String, Application> index)
 	{
 		// Initializations
-		String[] folders_files = InternalFile.searchFilesStartingWith(context, Constants.FILE_FOLDER_PREFIX) ;
+		String[] folders_files = StoredFile.searchFilesStartingWith(Constants.FILE_FOLDER_PREFIX) ;
 		if(folders_files == null) return ;
 
 		// Retrieve fhe folders colors mapping file if it exists
@@ -264,6 +1010,7 @@ public class ApplicationsList
 
 		// Browse the name of all folders files
 		ArrayList<Folder> folders = new ArrayList<>() ;
+		HashSet<Application> in_folders = new HashSet<>() ;
 		for(String filename : folders_files)
 		{
 			// Load the file, or skip it if it does not exist
@@ -271,7 +1018,7 @@ public class ApplicationsList
 			if(folder_file == null) continue ;
 
 			// Convert the folder from the name format to ComponentInfo format if needed
-			folder_file = convertComponentInfo(filename, folder_file) ;
+			folder_file = convertComponentInfo(filename, folder_file, index) ;
 
 			// Check if a color has beed defined for this folder or use the default white
 			int color = ContextCompat.getColor(context, R.color.for_icon_added_in_drawer) ;
@@ -290,49 +1037,55 @@ public class ApplicationsList
 			// Browse the lines of the file to get the list of applications to put in the folder
 			for(String component_info : folder_file)
 			{
-				// Search the internal name in the applications list
-				for(Application application : drawer)
-					if(application.getComponentInfo().equals(component_info))
-						{
-							// Move the application in the folder
-							folder.addToFolder(application) ;
-							drawer.remove(application) ;
-							break ;
-						}
+				// Move the application in the folder unless it is already in another one
+				Application application = index.get(component_info) ;
+				if((application != null) && in_folders.add(application)) folder.addToFolder(application) ;
 			}
 
-			// Retrieve the number of apps in the folder
-			int folder_size = folder.getApplications().size() ;
-
-			// Create a folder icon using a specific or generic icon pack icon, or the Discreet Launcher folder icon as fallback
-			Drawable icon ;
-			Drawable iconPackIcon = searchInMultipleIconPacks(iconPack1, iconPack2, Constants.APK_FOLDER, Constants.APK_FOLDER + folder_size) ;
-			if(iconPackIcon != null) icon = new FolderIcon(iconPackIcon, icon_size, -1, -1, true) ;
-				else if(defaultIconPackIcon != null) icon = new FolderIcon(defaultIconPackIcon, icon_size, folder_size, folder.getColor(), true) ;
-				else icon = new FolderIcon(baseIcon, icon_size, folder_size, folder.getColor(), false) ;
-
-			// Resize the icon to the user-defined size
-			icon.setBounds(0, 0, icon_size, icon_size) ;
-			folder.setIcon(icon) ;
+			// Create the folder icon based on its number of apps
+			folder.setIcon(createFolderIcon(folder, defaultIconPackIcon, baseIcon)) ;
 
 			// Sort the folder content and add it to the list of folders
 			folder.sortFolder() ;
 			folders.add(folder) ;
 		}
 
+		// Remove the applications moved in folders from the drawer
+		removeFromDrawer(in_folders) ;
+
 		// Sort the folders and add them at the beginning or end of the list (based on layout)
-		Collator collator = Collator.getInstance() ;
-		collator.setStrength(Collator.PRIMARY) ;
-		Collections.sort(folders, (folder1, folder2) -> collator.compare(folder1.getDisplayName(), folder2.getDisplayName())) ;
+		Collections.sort(folders, Application::compareByDisplayName) ;
 		if(reversed) drawer.addAll(folders) ;
 			else drawer.addAll(0, folders) ;
+		for(Folder folder : folders) index.put(folder.getComponentInfo(), folder) ;
+	}
+
+
+	/**
+	 * Create the icon of a folder, based on the number of applications it contains.
+	 */
+	private Drawable createFolderIcon(Folder folder, Drawable defaultIconPackIcon, Drawable baseIcon)
+	{
+		// Retrieve the number of apps in the folder
+		int folder_size = folder.getApplications().size() ;
+
+		// Create a folder icon using a specific or generic icon pack icon, or the Discreet Launcher folder icon as fallback
+		Drawable icon ;
+		Drawable iconPackIcon = searchInMultipleIconPacks(iconPack1, iconPack2, Constants.APK_FOLDER, Constants.APK_FOLDER + folder_size) ;
+		if(iconPackIcon != null) icon = new FolderIcon(iconPackIcon, icon_size, -1, -1, true) ;
+			else if(defaultIconPackIcon != null) icon = new FolderIcon(defaultIconPackIcon, icon_size, folder_size, folder.getColor(), true) ;
+			else icon = new FolderIcon(baseIcon, icon_size, folder_size, folder.getColor(), false) ;
+
+		// Resize the icon to the user-defined size
+		icon.setBounds(0, 0, icon_size, icon_size) ;
+		return icon ;
 	}
 
 
 	/**
-	 * Hide applications based on the internal file (to apply before folders).
+	 * Hide applications based on the internal file (to apply before folders, hidden ones are removed from the index).
 	 */
-	private void manageHiddenApplications()
+	private void manageHiddenApplications(HashMap<String, Application> index)
 	{
 		// Check if hidden applications have been defined
 		hidden.clear() ;
@@ -340,27 +1093,22 @@ public class ApplicationsList
 		if(hidden_file == null) return ;
 
 		// Convert the hidden from the name format to ComponentInfo format if needed
-		hidden_file = convertComponentInfo(Constants.FILE_HIDDEN, hidden_file) ;
+		hidden_file = convertComponentInfo(Constants.FILE_HIDDEN, hidden_file, index) ;
 
 		// Browse the list of applications that should be hidden
+		HashSet<Application> to_hide = new HashSet<>() ;
 		for(String line : hidden_file)
 		{
 			// Never hide the Discreet Launcher icon (as it can be the only access to the menu)
 			if(line.equals("{com.vincent_falzon.discreetlauncher/com.vincent_falzon.discreetlauncher.ActivityMain}")) continue ;
 
-			// Search the internal name in the applications list
-			for(Application application : drawer)
-				if(application.getComponentInfo().equals(line))
-					{
-						// Remove the application icon to lower memory footprint
-						application.setIcon(null) ;
-
-						// Move the application in the hidden list
-						hidden.add(application) ;
-						drawer.remove(application) ;
-						break ;
-					}
+			// Move the application in the hidden list
+			Application application = index.remove(line) ;
+			if((application != null) && to_hide.add(application)) hidden.add(application) ;
 		}
+
+		// Remove the hidden applications from the drawer
+		removeFromDrawer(to_hide) ;
 	}
 
 
@@ -424,7 +1172,7 @@ public class ApplicationsList
 	/**
 	 * Rename applications if needed.
 	 */
-	private void renameApplications()
+	private void renameApplications(HashMap<String, Application> index)
 	{
 		// Check if apps have been renamed
 		ArrayList<String> rename_apps_file = new InternalFileTXT(Constants.FILE_RENAME_APPS).readAllLines() ;
@@ -433,15 +1181,14 @@ public class ApplicationsList
 		// Browse the internal file
 		for(String line : rename_apps_file)
 		{
-			// Search the ComponentInfo in the applications list
-			for(Application application : drawer)
-				if(line.startsWith(application.getComponentInfo() + Constants.SEPARATOR))
-				{
-					// Rename the application and move to the next line
-					String new_name = line.replace(application.getComponentInfo() + Constants.SEPARATOR, "") ;
-					application.setDisplayName(new_name) ;
-					break ;
-				}
+			// Retrieve the ComponentInfo (which always ends with a closing brace) and the new name
+			int separator_index = line.indexOf("}" + Constants.SEPARATOR) ;
+			if(separator_index < 0) continue ;
+			String component_info = line.substring(0, separator_index + 1) ;
+
+			// Rename the application if it exists
+			Application application = index.get(component_info) ;
+			if(application != null) application.setDisplayName(line.substring(separator_index + 1 + Constants.SEPARATOR.length())) ;
 		}
 	}
 
@@ -458,6 +1205,67 @@ public class ApplicationsList
 	}
 
 
+	/**
+	 * Rebuild the set of ComponentInfo in the favorites panel from the current favorites list.
+	 */
+	private void indexFavorites()
+	{
+		favoritesComponents.clear() ;
+		for(Application application : favorites) favoritesComponents.add(application.getComponentInfo()) ;
+	}
+
+
+	/**
+	 * Rebuild the mapping between each ComponentInfo and the name of its folder from the current folders.
+	 */
+	private void indexFolders()
+	{
+		foldersComponents.clear() ;
+		for(Application application : drawer)
+			if(application instanceof Folder)
+				for(Application content : ((Folder)application).getApplications())
+					foldersComponents.put(content.getComponentInfo(), application.getDisplayName()) ;
+	}
+
+
+	/**
+	 * Check if the given ComponentInfo is in the favorites panel (without reading the file).
+	 */
+	public boolean isFavorite(String component_info)
+	{
+		return favoritesComponents.contains(component_info) ;
+	}
+
+
+	/**
+	 * Record that the given ComponentInfo has been added to or removed from the favorites file.
+	 */
+	public void setFavorite(String component_info, boolean is_favorite)
+	{
+		if(is_favorite) favoritesComponents.add(component_info) ;
+			else favoritesComponents.remove(component_info) ;
+	}
+
+
+	/**
+	 * Return the name of the folder containing the given ComponentInfo, or <code>null</code> if none (without reading the files).
+	 */
+	public String getFolderName(String component_info)
+	{
+		return foldersComponents.get(component_info) ;
+	}
+
+
+	/**
+	 * Record that the given ComponentInfo has been added to a folder, or removed from its folder if <code>null</code>.
+	 */
+	public void setFolderName(String component_info, String folder_name)
+	{
+		if(folder_name != null) foldersComponents.put(component_info, folder_name) ;
+			else foldersComponents.remove(component_info) ;
+	}
+
+
 	/**
 	 * Return the list of applications which are not in folders.
 	 */
@@ -477,9 +1285,30 @@ public class ApplicationsList
 
 
 	/**
-	 * Return all applications (except hidden), including or not those which are in folders.
+	 * Return all applications (except hidden), including or not those which are in folders (read-only and shared).
 	 */
-	public ArrayList<Application> getApplications(boolean with_folders)
+	public List<Application> getApplications(boolean with_folders)
+	{
+		// Build the lists only if the drawer or the folders have changed since the last call
+		if(applicationsWithFolders == null) buildApplications() ;
+		return with_folders ? applicationsWithFolders : applicationsWithoutFolders ;
+	}
+
+
+	/**
+	 * Forget the lists returned by getApplications() (to call when the drawer or the folders change).
+	 */
+	private void invalidateApplications()
+	{
+		applicationsWithFolders = null ;
+		applicationsWithoutFolders = null ;
+	}
+
+
+	/**
+	 * Build the sorted lists of all applications (except hidden) with and without folders.
+	 */
+	private void buildApplications()
 	{
 		// Aggregate all applications in one list
 		ArrayList<Application> allApplications = new ArrayList<>() ;
@@ -496,9 +1325,7 @@ public class ApplicationsList
 		}
 
 		// Sort the list in alphabetic order based on display name
-		Collator collator = Collator.getInstance() ;
-		collator.setStrength(Collator.PRIMARY) ;
-		Collections.sort(allApplications, (application1, application2) -> collator.compare(application1.getDisplayName(), application2.getDisplayName())) ;
+		Collections.sort(allApplications, Application::compareByDisplayName) ;
 
 		// Retrive the index of the Search
 		int search_index = 0 ;
@@ -519,16 +1346,15 @@ public class ApplicationsList
 				allApplications.add(0, search) ;
 			}
 
-		// If requested, add folders at the beginning of the list
-		if(with_folders)
-			{
-				// Sort the folders and add them at the beginning of the list
-				Collections.sort(folders, (folder1, folder2) -> collator.compare(folder1.getDisplayName(), folder2.getDisplayName())) ;
-				allApplications.addAll(0, folders) ;
-			}
+		// Prepare the second list with the sorted folders at the beginning
+		Collections.sort(folders, Application::compareByDisplayName) ;
+		ArrayList<Application> allApplicationsWithFolders = new ArrayList<>(folders.size() + allApplications.size()) ;
+		allApplicationsWithFolders.addAll(folders) ;
+		allApplicationsWithFolders.addAll(allApplications) ;
 
-		// Return the result
-		return allApplications ;
+		// Keep the results
+		applicationsWithoutFolders = Collections.unmodifiableList(allApplications) ;
+		applicationsWithFolders = Collections.unmodifiableList(allApplicationsWithFolders) ;
 	}
 
 
@@ -562,10 +1388,11 @@ public class ApplicationsList
 	/**
 	 * Convert an internal file from name format to ComponentInfo format if needed.
 	 */
-	private ArrayList<String> convertComponentInfo(String filename, ArrayList<String> content)
+	private ArrayList<String> convertComponentInfo(String filename, ArrayList<String> content, HashMap<String, Application> index)
 	{
 		// Browse the internal file
 		ArrayList<String> new_content = new ArrayList<>() ;
+		HashMap<String, Application> names = null ;
 		for(String line : content)
 		{
 			// Do not modify the line if it is already converted
@@ -575,35 +1402,81 @@ public class ApplicationsList
 					continue ;
 				}
 
-			// Search the internal name in the applications list
-			for(Application application : getApplications(true))
-				if(application.getName().equals(line))
-					{
-						// Retrieve the ComponentInfo of the application
-						new_content.add(application.getComponentInfo()) ;
-						break ;
-					}
+			// Index the applications by internal name the first time it is needed
+			if(names == null)
+				{
+					names = new HashMap<>() ;
+					for(Application application : index.values())
+						if(!names.containsKey(application.getName())) names.put(application.getName(), application) ;
+				}
+
+			// Retrieve the ComponentInfo of the application
+			Application application = names.get(line) ;
+			if(application != null) new_content.add(application.getComponentInfo()) ;
 		}
 
+		// If nothing has been converted, keep the file as it is
+		if(names == null) return new_content ;
+
 		// If any, write the new content in the file
-		if(new_content.size() > 0)
-			{
-				InternalFileTXT file = new InternalFileTXT(filename) ;
-				if(file.remove()) for(String line : new_content) file.writeLine(line) ;
-			}
+		if(new_content.size() > 0) new InternalFileTXT(filename).replaceAll(new_content) ;
 
 		// Return the converted file
 		return new_content ;
 	}
 
 
+	/**
+	 * Return the given icon pack if it is still the selected one, otherwise load the selected one.
+	 */
+	private static IconPack loadIconPack(Context context, IconPack current, String setting_key)
+	{
+		// Reuse the icon pack already indexed if the setting has not changed and the pack has not been updated
+		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
+		String selected_pack = settings.getString(setting_key, Constants.NONE) ;
+		if((current != null) && current.getPackName().equals(selected_pack) && !outdatedIconPacks.contains(selected_pack)) return current ;
+		return new IconPack(context, setting_key) ;
+	}
+
+
+	/**
+	 * Forget the icon pack matching the given package and its saved index to rebuild them.
+	 * @return <code>true</code> if the package is a selected icon pack, <code>false</code> otherwise
+	 */
+	public static boolean forgetIconPack(Context context, String apk)
+	{
+		// Check if the package is one of the selected icon packs
+		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
+		final boolean selected = apk.equals(settings.getString(Constants.ICON_PACK, Constants.NONE))
+				|| apk.equals(settings.getString(Constants.ICON_PACK_SECONDARY, Constants.NONE)) ;
+
+		// Forget the saved index of the pack and mark it to be reloaded by the next rebuild (after the one in progress, if any)
+		executor.execute(() -> {
+				if(selected) outdatedIconPacks.add(apk) ;
+				if(selected || IconPack.hasIndex(apk)) IconPack.removeIndex(apk) ;
+			}) ;
+		return selected ;
+	}
+
+
 	/**
 	 * Search the icon of an application in the packs (returns <code>null</code> if not found).
 	 */
 	private Drawable searchInMultipleIconPacks(IconPack iconPack1, IconPack iconPack2, String apk, String name)
 	{
-		Drawable icon = iconPack1.searchIcon(apk, name) ;
-		if(icon == null) icon = iconPack2.searchIcon(apk, name) ;
+		Drawable icon = (iconPack1 != null) ? iconPack1.searchIcon(apk, name) : null ;
+		if((icon == null) && (iconPack2 != null)) icon = iconPack2.searchIcon(apk, name) ;
 		return icon ;
 	}
+
+
+	// ---------------------------------------------------------------------------------------------
+
+	/**
+	 * Listener informed when a rebuild of the list has been published.
+	 */
+	public interface UpdateListener
+	{
+		void onListUpdated() ;
+	}
 }
@@ -40,13 +40,13 @@ import android.widget.PopupWindow ;
 import android.widget.TextView ;
 import androidx.preference.PreferenceManager ;
 import androidx.recyclerview.widget.RecyclerView ;
+import com.vincent_falzon.discreetlauncher.ActivityMain ;
 import com.vincent_falzon.discreetlauncher.Utils ;
 import com.vincent_falzon.discreetlauncher.menu.ActivityFolders ;
 import com.vincent_falzon.discreetlauncher.Constants ;
 import com.vincent_falzon.discreetlauncher.FlexibleGridLayout ;
 import com.vincent_falzon.discreetlauncher.R ;
 import com.vincent_falzon.discreetlauncher.RecyclerAdapter ;
-import java.text.Collator ;
 import java.util.ArrayList ;
 import java.util.Collections ;
 import static com.vincent_falzon.discreetlauncher.ActivityMain.getApplicationWidth ;
@@ -56,9 +56,19 @@ import static com.vincent_falzon.discreetlauncher.ActivityMain.getApplicationWid
  */
 public class Folder extends Application
 {
+	// Popup shared by all folders and kept between openings
+	private static Context popupContext = null ;
+	private static View popupView = null ;
+	private static TextView popupTitle = null ;
+	private static View popupHeader = null ;
+	private static View popupLine = null ;
+	private static RecyclerView popupRecycler = null ;
+	private static RecyclerAdapter popupAdapter = null ;
+	private static PopupWindow popup = null ;
+	private static Folder openedFolder = null ;
+
 	// Attributes
 	private final ArrayList<Application> applications ;
-	private PopupWindow popup ;
 	private int color ;
 
 
@@ -69,7 +79,6 @@ public class Folder extends Application
 	{
 		super(display_name, Constants.APK_FOLDER + display_name, Constants.APK_FOLDER, icon,  null) ;
 		applications = new ArrayList<>() ;
-		popup = null ;
 		this.color = color ;
 	}
 
@@ -89,7 +98,7 @@ public class Folder extends Application
 	@Override
 	public void setDisplayName(String new_name)
 	{
-		display_name = new_name ;
+		super.setDisplayName(new_name) ;
 		name = Constants.APK_FOLDER + display_name ;
 		component_info = "{" + apk + "/" + name + "}" ;
 	}
@@ -147,58 +156,96 @@ public class Folder extends Application
 	public void sortFolder()
 	{
 		if(applications.size() < 2) return ;
-		Collator collator = Collator.getInstance() ;
-		collator.setStrength(Collator.PRIMARY) ;
-		Collections.sort(applications, (application1, application2) -> collator.compare(application1.getDisplayName(), application2.getDisplayName())) ;
+		Collections.sort(applications, Application::compareByDisplayName) ;
 	}
 
 
 	/**
-	 * Display the content of the folder as a popup.
+	 * Prepare the popup shared by all folders for the given activity (only once).
 	 */
 	@SuppressWarnings({"RedundantCast", "RedundantSuppression"})
-	public boolean start(View parent)
+	private static void preparePopup(Context context)
 	{
-		// Inflate the popup view from its XML layout
-		Context context = parent.getContext() ;
-		View popupView = LayoutInflater.from(context).inflate(R.layout.view_popup, (ViewGroup)null) ;
+		// Check if the popup is already prepared for this activity
+		if(popupContext == context) return ;
+		popupContext = context ;
 
-		// Prepare the folder header
-		TextView popupTitle = popupView.findViewById(R.id.popup_title) ;
-		popupTitle.setText(getDisplayNameWithCount()) ;
-		popupView.findViewById(R.id.popup_header).setOnClickListener(view -> {
+		// Inflate the popup view from its XML layout
+		popupView = LayoutInflater.from(context).inflate(R.layout.view_popup, (ViewGroup)null) ;
+		popupTitle = popupView.findViewById(R.id.popup_title) ;
+		popupHeader = popupView.findViewById(R.id.popup_header) ;
+		popupLine = popupView.findViewById(R.id.popup_line1) ;
+		popupHeader.setOnClickListener(view -> {
 				// Open the interface to manage folders and close the popup
-				showSettings(view.getContext()) ;
-				closePopup() ;
+				if(openedFolder != null) openedFolder.showSettings(view.getContext()) ;
+				if(popup != null) popup.dismiss() ;
 			}) ;
 
-		// Prepare the folder content
-		RecyclerView popupRecycler = popupView.findViewById(R.id.popup_recycler) ;
-		RecyclerAdapter recyclerAdapter = new RecyclerAdapter(context, applications, Constants.FOLDER) ;
-		popupRecycler.setAdapter(recyclerAdapter) ;
+		// Prepare the folder content, sharing the application views with the other lists
+		popupRecycler = popupView.findViewById(R.id.popup_recycler) ;
+		popupAdapter = new RecyclerAdapter(context, new ArrayList<>(), Constants.FOLDER) ;
+		if(context instanceof ActivityMain) popupRecycler.setRecycledViewPool(ActivityMain.getApplicationsViewPool()) ;
+		popupRecycler.setAdapter(popupAdapter) ;
+		popupRecycler.setItemAnimator(null) ;
 		popupRecycler.setLayoutManager(new FlexibleGridLayout(context, getApplicationWidth())) ;
 		if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.S)
 			popupRecycler.setOverScrollMode(View.OVER_SCROLL_NEVER) ;
 
+		// Create the popup representing the folders
+		int popup_height = context.getResources().getDisplayMetrics().heightPixels / 2 ;
+		popup = new PopupWindow(popupView, LinearLayout.LayoutParams.MATCH_PARENT, popup_height, true) ;
+		popupView.setOnTouchListener(new PopupTouchListener()) ;
+
+		// Fix popup not closing on press back with API 21
+		popup.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT)) ;
+		popup.setOnDismissListener(() -> openedFolder = null) ;
+	}
+
+
+	/**
+	 * Forget the popup shared by all folders (to call when its activity is destroyed).
+	 */
+	public static void releasePopup()
+	{
+		if(popup != null) popup.dismiss() ;
+		popupContext = null ;
+		popupView = null ;
+		popupTitle = null ;
+		popupHeader = null ;
+		popupLine = null ;
+		popupRecycler = null ;
+		popupAdapter = null ;
+		popup = null ;
+		openedFolder = null ;
+	}
+
+
+	/**
+	 * Display the content of the folder as a popup.
+	 */
+	public boolean start(View parent)
+	{
+		// Retrieve the popup shared by all folders and display the content of this one
+		Context context = parent.getContext() ;
+		preparePopup(context) ;
+		openedFolder = this ;
+		popupTitle.setText(getDisplayNameWithCount()) ;
+
 		// Retrieve the folder colors
 		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
 		int text_color = Utils.getColor(settings, Constants.TEXT_COLOR_FOLDERS, Constants.COLOR_FOR_TEXT_ON_OVERLAY) ;
 		int background_color = Utils.getColor(settings, Constants.BACKGROUND_COLOR_FOLDERS, Constants.COLOR_FOR_DENSE_OVERLAY) ;
 
 		// Set the folder colors
-		popupView.findViewById(R.id.popup_header).setBackgroundColor(background_color) ;
-		popupView.findViewById(R.id.popup_line1).setBackgroundColor(color) ;
+		popupHeader.setBackgroundColor(background_color) ;
+		popupLine.setBackgroundColor(color) ;
 		popupRecycler.setBackgroundColor(background_color) ;
 		popupTitle.setTextColor(text_color) ;
-		recyclerAdapter.setTextColor(text_color) ;
+		popupAdapter.setTextColor(text_color) ;
 
-		// Create the popup representing the folder
-		int popup_height = context.getResources().getDisplayMetrics().heightPixels / 2 ;
-		popup = new PopupWindow(popupView, LinearLayout.LayoutParams.MATCH_PARENT, popup_height, true) ;
-		popupView.setOnTouchListener(new PopupTouchListener()) ;
-
-		// Fix popup not closing on press back with API 21
-		popup.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT)) ;
+		// Display the applications of this folder from the top
+		popupAdapter.setApplications(applications) ;
+		popupRecycler.scrollToPosition(0) ;
 
 		// Display the popup
 		popup.showAtLocation(parent, Gravity.CENTER, 0, 0) ;
@@ -217,9 +264,9 @@ public class Folder extends Application
 
 
 	/**
-	 * Dismiss the popup if it is currently displayed.
+	 * Dismiss the popup shared by all folders if it is currently displayed.
 	 */
-	public void closePopup()
+	public static void closePopup()
 	{
 		if(popup != null) popup.dismiss() ;
 	}
@@ -230,7 +277,7 @@ public class Folder extends Application
 	/**
 	 * Dismiss the popup when the user touchs outside of it (needs <code>focusable = true</code>).
 	 */
-	private class PopupTouchListener implements View.OnTouchListener
+	private static class PopupTouchListener implements View.OnTouchListener
 	{
 		/**
 		 * Called when a view is touched.
@@ -240,7 +287,7 @@ public class Folder extends Application
 		{
 			// Close the popup and mark the event as consumed
 			view.performClick() ;
-			closePopup() ;
+			if(popup != null) popup.dismiss() ;
 			return true ;
 		}
 	}
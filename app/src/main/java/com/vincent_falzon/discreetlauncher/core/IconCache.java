@@ -0,0 +1,296 @@
+package com.vincent_falzon.discreetlauncher.core ;
+
+// License
+/*
+
+	This file is part of Discreet Launcher.
+
+	Copyright (C) 2019-2025 Vincent Falzon
+
+	This program is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ */
+
+// Imports
+import android.app.ActivityManager ;
+import android.content.ComponentCallbacks2 ;
+import android.content.Context ;
+import android.graphics.Bitmap ;
+import android.graphics.BitmapFactory ;
+import android.graphics.Canvas ;
+import android.graphics.drawable.BitmapDrawable ;
+import android.graphics.drawable.Drawable ;
+import android.util.LruCache ;
+import com.vincent_falzon.discreetlauncher.Utils ;
+import java.io.File ;
+import java.io.FileOutputStream ;
+import java.io.IOException ;
+import java.util.HashSet ;
+import java.util.UUID ;
+
+/**
+ * Keep the application icons rendered at their display size, in memory (most recently used) and on disk.
+ */
+public abstract class IconCache
+{
+	// Constants
+	private static final String TAG = "IconCache" ;
+	private static final int MEMORY_CLASS_FRACTION = 8 ;
+	private static final String DISK_FOLDER = "icons" ;
+
+	// Attributes
+	private static LruCache<String, RenderedIcon> cache ;
+	private static File diskFolder ;
+
+
+	/**
+	 * Return the cache, created on first use with a fraction of the memory available to the launcher.
+	 */
+	private static synchronized LruCache<String, RenderedIcon> getCache(Context context)
+	{
+		// Create the cache if needed (its size is in kilobytes)
+		if(cache == null)
+			{
+				ActivityManager activityManager = (ActivityManager)context.getSystemService(Context.ACTIVITY_SERVICE) ;
+				int max_size = activityManager.getMemoryClass() * 1024 / MEMORY_CLASS_FRACTION ;
+				cache = new LruCache<String, RenderedIcon>(max_size) {
+						@Override
+						protected int sizeOf(String key, RenderedIcon rendered)
+						{
+							return Math.max(1, rendered.bitmap.getByteCount() / 1024) ;
+						}
+					} ;
+				Utils.logInfo(TAG, "created with " + max_size + "KB") ;
+			}
+		return cache ;
+	}
+
+
+	/**
+	 * Return the generation of the rendered icons, which changes with any setting affecting all of them.
+	 */
+	static String getGeneration(int icon_size, String icon_pack1, long version1, String icon_pack2, long version2, int color_tint)
+	{
+		return icon_size + "|" + icon_pack1 + "|" + version1 + "|" + icon_pack2 + "|" + version2 + "|" + color_tint ;
+	}
+
+
+	/**
+	 * Prepare the disk folder of the given generation and remove those of previous generations (in the background).
+	 */
+	static synchronized void prepareDiskFolder(Context context, String generation)
+	{
+		// Do not continue if the folder is already selected
+		File root = new File(context.getCacheDir(), DISK_FOLDER) ;
+		File folder = new File(root, UUID.nameUUIDFromBytes(generation.getBytes()).toString()) ;
+		if(folder.equals(diskFolder)) return ;
+
+		// Remove the rendered icons of other generations as they will not be used anymore
+		File[] previous_folders = root.listFiles() ;
+		if(previous_folders != null)
+			for(File previous_folder : previous_folders)
+				if(!previous_folder.equals(folder)) removeFolder(previous_folder) ;
+
+		// Create the folder if needed
+		if(!folder.exists() && !folder.mkdirs()) Utils.logError(TAG, "unable to create " + folder.getName()) ;
+		diskFolder = folder ;
+	}
+
+
+	/**
+	 * Remove a folder and its content.
+	 */
+	private static void removeFolder(File folder)
+	{
+		File[] files = folder.listFiles() ;
+		if(files != null)
+			for(File file : files)
+				if(!file.delete()) Utils.logError(TAG, "unable to remove " + file.getName()) ;
+		if(!folder.delete()) Utils.logError(TAG, "unable to remove " + folder.getName()) ;
+	}
+
+
+	/**
+	 * Return the name of the file where the icon of an application is stored (one per version of the package).
+	 */
+	static String getEntryName(String component_info, long version_code)
+	{
+		return UUID.nameUUIDFromBytes((component_info + "|" + version_code).getBytes()).toString() + ".png" ;
+	}
+
+
+	/**
+	 * Return the file where an icon of the current generation is stored.
+	 */
+	private static synchronized File getDiskFile(String generation, String component_info, long version_code)
+	{
+		if(diskFolder == null) return null ;
+		if(!diskFolder.getName().equals(UUID.nameUUIDFromBytes(generation.getBytes()).toString())) return null ;
+		return new File(diskFolder, getEntryName(component_info, version_code)) ;
+	}
+
+
+	/**
+	 * Remove the icons of the given generation which are not in the list of entries to keep (see <code>getEntryName()</code>).
+	 */
+	static synchronized void pruneDiskFolder(String generation, HashSet<String> kept_entries)
+	{
+		// Do not continue if the folder does not belong to this generation
+		if(diskFolder == null) return ;
+		if(!diskFolder.getName().equals(UUID.nameUUIDFromBytes(generation.getBytes()).toString())) return ;
+
+		// Remove the icons of previous versions and of applications which do not exist anymore
+		File[] files = diskFolder.listFiles() ;
+		if(files == null) return ;
+		int removed = 0 ;
+		for(File file : files)
+			if(file.getName().endsWith(".png") && !kept_entries.contains(file.getName()))
+				{
+					if(file.delete()) removed++ ;
+						else Utils.logError(TAG, "unable to remove " + file.getName()) ;
+				}
+		if(removed > 0) Utils.logInfo(TAG, removed + " outdated icons removed") ;
+	}
+
+
+	/**
+	 * Return the rendered icon of an application, or <code>null</code> if it is not available or older than the package.
+	 */
+	static Drawable get(Context context, String generation, String component_info, long update_time, long version_code, int icon_size)
+	{
+		// Search the icon in memory, it is valid only if rendered for the installed version of the package
+		RenderedIcon rendered = getCache(context).get(generation + "|" + component_info) ;
+		if((rendered != null) && (rendered.update_time == update_time) && (rendered.version_code == version_code))
+			return createDrawable(context, rendered.bitmap, icon_size) ;
+
+		// Search the icon on disk, it is valid only if rendered after the last update of the package
+		File file = getDiskFile(generation, component_info, version_code) ;
+		if((file == null) || (file.lastModified() < update_time)) return null ;
+		Bitmap bitmap = BitmapFactory.decodeFile(file.getPath()) ;
+		if(bitmap == null) return null ;
+
+		// Keep the icon in memory and return it
+		getCache(context).put(generation + "|" + component_info, new RenderedIcon(bitmap, update_time, version_code)) ;
+		return createDrawable(context, bitmap, icon_size) ;
+	}
+
+
+	/**
+	 * Return the last icon rendered in memory for an application (without checking the version of its package),
+	 * or <code>null</code> if there is none. Quick enough to be called from the UI thread.
+	 */
+	static Drawable getLastRendered(Context context, String generation, String component_info, int icon_size)
+	{
+		RenderedIcon rendered = getCache(context).get(generation + "|" + component_info) ;
+		if(rendered == null) return null ;
+		return createDrawable(context, rendered.bitmap, icon_size) ;
+	}
+
+
+	/**
+	 * Render an icon at the given size, keep the result in memory and on disk, then return it.
+	 */
+	static Drawable render(Context context, String generation, String component_info, long update_time, long version_code, Drawable icon, int icon_size)
+	{
+		// Draw the icon at its display size
+		Bitmap bitmap = Bitmap.createBitmap(icon_size, icon_size, Bitmap.Config.ARGB_8888) ;
+		icon.setBounds(0, 0, icon_size, icon_size) ;
+		icon.draw(new Canvas(bitmap)) ;
+
+		// Keep the result in memory and on disk
+		getCache(context).put(generation + "|" + component_info, new RenderedIcon(bitmap, update_time, version_code)) ;
+		File file = getDiskFile(generation, component_info, version_code) ;
+		if(file != null) writeToDisk(file, bitmap) ;
+		return createDrawable(context, bitmap, icon_size) ;
+	}
+
+
+	/**
+	 * Write a rendered icon on disk (in a temporary file first, then renamed to never leave a partial icon).
+	 */
+	private static void writeToDisk(File file, Bitmap bitmap)
+	{
+		// Use a unique temporary file as the same icon can be rendered by several threads at once
+		File temporary = null ;
+		try
+		{
+			temporary = File.createTempFile(file.getName(), ".tmp", file.getParentFile()) ;
+			FileOutputStream output = new FileOutputStream(temporary) ;
+			bitmap.compress(Bitmap.CompressFormat.PNG, 100, output) ;
+			output.close() ;
+			if(!temporary.renameTo(file))
+				{
+					Utils.logError(TAG, "unable to save " + file.getName()) ;
+					if(!temporary.delete()) Utils.logError(TAG, "unable to remove " + temporary.getName()) ;
+				}
+		}
+		catch(IOException exception)
+		{
+			// An error happened while writing the file
+			Utils.logError(TAG, exception.getMessage()) ;
+			if((temporary != null) && temporary.exists() && !temporary.delete()) Utils.logError(TAG, "unable to remove " + temporary.getName()) ;
+		}
+	}
+
+
+	/**
+	 * Create a drawable from a rendered icon, ready for display.
+	 */
+	private static Drawable createDrawable(Context context, Bitmap bitmap, int icon_size)
+	{
+		Drawable icon = new BitmapDrawable(context.getResources(), bitmap) ;
+		icon.setBounds(0, 0, icon_size, icon_size) ;
+		return icon ;
+	}
+
+
+	/**
+	 * Release memory when requested by the system (see <code>ComponentCallbacks2.onTrimMemory()</code>).
+	 */
+	public static synchronized void trimMemory(int level)
+	{
+		// Do not continue if the cache does not exist
+		if(cache == null) return ;
+
+		// Empty the cache if the launcher is in the background, otherwise keep only half of it
+		Utils.logInfo(TAG, "trim memory (level " + level + ")") ;
+		if(level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) cache.evictAll() ;
+			else if(level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) cache.trimToSize(cache.maxSize() / 2) ;
+	}
+
+
+	// ---------------------------------------------------------------------------------------------
+
+	/**
+	 * Icon rendered in memory, with the version of the package it was rendered for.
+	 */
+	private static class RenderedIcon
+	{
+		// Attributes
+		final Bitmap bitmap ;
+		final long update_time ;
+		final long version_code ;
+
+
+		/**
+		 * Constructor.
+		 */
+		RenderedIcon(Bitmap bitmap, long update_time, long version_code)
+		{
+			this.bitmap = bitmap ;
+			this.update_time = update_time ;
+			this.version_code = version_code ;
+		}
+	}
+}
@@ -29,15 +29,23 @@ import android.content.SharedPreferences ;
 import android.content.pm.PackageManager ;
 import android.content.res.Resources ;
 import android.graphics.drawable.Drawable ;
+import androidx.core.content.pm.PackageInfoCompat ;
 import androidx.core.content.res.ResourcesCompat ;
 import androidx.preference.PreferenceManager ;
 import com.vincent_falzon.discreetlauncher.ActivityMain ;
 import com.vincent_falzon.discreetlauncher.Constants ;
 import com.vincent_falzon.discreetlauncher.R ;
 import com.vincent_falzon.discreetlauncher.Utils ;
+import com.vincent_falzon.discreetlauncher.storage.InternalFileBIN ;
 import org.xmlpull.v1.XmlPullParser ;
 import org.xmlpull.v1.XmlPullParserException ;
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.io.DataInputStream ;
+import java.io.DataOutputStream ;
 import java.io.IOException ;
+import java.util.HashMap ;
+import java.util.Map ;
 
 /**
  * Provide icon pack support.
@@ -46,11 +54,15 @@ class IconPack
 {
 	// Constants
 	private static final String TAG = "IconPack" ;
+	private static final int INDEX_FORMAT_VERSION = 1 ;
 
 	// Attributes
 	private final String pack_name ;
+	private final HashMap<String, String> appfilter ;
+	private final HashMap<String, Integer> icons_ids ;
 	private Resources pack_resources ;
-	private int appfilter_id ;
+	private long version_code ;
+	private boolean index_modified ;
 
 
 	/**
@@ -60,96 +72,261 @@ class IconPack
 	IconPack(Context context, String setting_key)
 	{
 		// Check if an icon pack is selected
-		appfilter_id = 0 ;
+		appfilter = new HashMap<>() ;
+		icons_ids = new HashMap<>() ;
+		index_modified = false ;
 		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
 		pack_name = settings.getString(setting_key, Constants.NONE) ;
 		if(pack_name.equals(Constants.NONE)) return ;
 
 		try
 		{
-			// Try to load the icon pack resources
+			// Try to load the icon pack resources and version
 			PackageManager apkManager = context.getPackageManager() ;
 			pack_resources = apkManager.getResourcesForApplication(pack_name) ;
+			version_code = PackageInfoCompat.getLongVersionCode(apkManager.getPackageInfo(pack_name, 0)) ;
 		}
 		catch(PackageManager.NameNotFoundException exception)
 		{
-			// Display an error message and set the icon pack to none
+			// Display an error message and set the icon pack to none (on the UI thread as the list is built in the background)
 			Utils.displayLongToast(context, context.getString(R.string.error_app_not_found, pack_name)) ;
 			Utils.logInfo(TAG, pack_name + " not found, reset of \"" + setting_key + "\"") ;
-			ActivityMain.setSkipListUpdate(true) ;
-			SharedPreferences.Editor editor = settings.edit() ;
-			editor.putString(setting_key, Constants.NONE).apply() ;
-			ActivityMain.setSkipListUpdate(false) ;
+			Utils.runOnMainThread(() -> {
+					ActivityMain.setSkipListUpdate(true) ;
+					SharedPreferences.Editor editor = settings.edit() ;
+					editor.putString(setting_key, Constants.NONE).apply() ;
+					ActivityMain.setSkipListUpdate(false) ;
+				}) ;
 			return ;
 		}
 
+		// Try to load the index saved for this version of the pack
+		if(loadIndex()) return ;
+
 		// Try to get the appfilter.xml file (display an error message if not successful)
-		appfilter_id = pack_resources.getIdentifier("appfilter", "xml", pack_name) ;
+		int appfilter_id = pack_resources.getIdentifier("appfilter", "xml", pack_name) ;
 		if(appfilter_id <= 0) appfilter_id = pack_resources.getIdentifier("appfilter", "raw", pack_name) ;
 		if(appfilter_id <= 0) Utils.displayLongToast(context, context.getString(R.string.error_icon_pack_appfilter_not_found, pack_name)) ;
+			else
+			{
+				// Index the pack and remember to save the result
+				indexAppfilter(appfilter_id) ;
+				index_modified = true ;
+			}
 	}
 
 
 	/**
-	 * Search the icon of an application in the pack (returns <code>null</code> if not found).
+	 * Return the package name of the icon pack (or "none" if no icon pack is selected).
 	 */
-	@SuppressLint("DiscouragedApi")
-	Drawable searchIcon(String apk, String name)
+	String getPackName()
 	{
-		// Do not continue if no icon pack is loaded
-		if(appfilter_id <= 0) return null ;
+		return pack_name ;
+	}
+
+
+	/**
+	 * Return the version code of the icon pack (0 if no icon pack is selected).
+	 */
+	long getVersionCode()
+	{
+		return version_code ;
+	}
 
-		// Initializations (the XML file need to be reloaded for each icon)
-		XmlPullParser appfilter = pack_resources.getXml(appfilter_id) ;
-		String component_info = "ComponentInfo{" + apk + "/" + name ;
-		int i, j ;
+
+	/**
+	 * Parse the appfilter.xml file once to index the icon name of each component.
+	 */
+	private void indexAppfilter(int appfilter_id)
+	{
+		// Initializations
+		XmlPullParser parser = pack_resources.getXml(appfilter_id) ;
+		String prefix = "ComponentInfo{" ;
 
 		try
 		{
 			// Browse the appfilter.xml file
-			int event = appfilter.getEventType() ;
+			int event = parser.getEventType() ;
 			while(event != XmlPullParser.END_DOCUMENT)
 			{
 				// Search only the <item ...> tags
-				if((event == XmlPullParser.START_TAG) && appfilter.getName().equals("item"))
+				if((event == XmlPullParser.START_TAG) && parser.getName().equals("item"))
 					{
-						// Browse up to the "component" attribute
-						for(i = 0 ; i < appfilter.getAttributeCount() ; i++)
-						{
-							if(appfilter.getAttributeName(i).equals("component"))
-								{
-									// Check if this is the searched package
-									if(appfilter.getAttributeValue(i).startsWith(component_info))
-										{
-											// Get the icon name in the pack
-											String icon_name = "" ;
-											for(j = 0 ; j < appfilter.getAttributeCount() ; j++)
-												if(appfilter.getAttributeName(j).equals("drawable"))
-													icon_name = appfilter.getAttributeValue(j) ;
-
-											// Try to load the icon from the pack
-											int icon_id = pack_resources.getIdentifier(icon_name, "drawable", pack_name) ;
-											if(icon_id > 0) return ResourcesCompat.getDrawable(pack_resources, icon_id, null) ;
-
-											// No icon to load
-											return null ;
-										}
-
-									// Move to the next <item ...> tag
-									break ;
-								}
-						}
+						// Retrieve the component and the related icon name (if any)
+						String component = parser.getAttributeValue(null, "component") ;
+						String icon_name = parser.getAttributeValue(null, "drawable") ;
+						if((component != null) && component.startsWith(prefix))
+							{
+								// Index the component as "package/name" (the first occurrence is kept)
+								component = component.substring(prefix.length()).trim() ;
+								if(component.endsWith("}")) component = component.substring(0, component.length() - 1) ;
+								if(!appfilter.containsKey(component))
+									appfilter.put(component, (icon_name == null) ? "" : icon_name) ;
+							}
 					}
-				event = appfilter.next() ;
+				event = parser.next() ;
 			}
-
-			// Package not found in the icon pack
-			return null ;
+			Utils.logInfo(TAG, pack_name + " indexed (" + appfilter.size() + " components)") ;
 		}
 		catch(XmlPullParserException | IOException exception)
 		{
 			// An error happened during the parsing
 			Utils.logError(TAG, exception.getMessage()) ;
+		}
+	}
+
+
+	/**
+	 * Return the file where the index of the given pack is saved.
+	 */
+	private static InternalFileBIN getIndexFile(String pack_name)
+	{
+		return new InternalFileBIN(Constants.FILE_ICON_PACK_INDEX_PREFIX + pack_name + ".bin") ;
+	}
+
+
+	/**
+	 * Return <code>true</code> if an index has been saved for the given pack, <code>false</code> otherwise.
+	 */
+	static boolean hasIndex(String pack_name)
+	{
+		return getIndexFile(pack_name).exists() ;
+	}
+
+
+	/**
+	 * Remove the saved index of the given pack (if any) so that it is rebuilt at next loading.
+	 */
+	static void removeIndex(String pack_name)
+	{
+		if(!getIndexFile(pack_name).remove()) Utils.logError(TAG, "unable to remove the index of " + pack_name) ;
+	}
+
+
+	/**
+	 * Try to load the index saved for the current version of the pack.
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	private boolean loadIndex()
+	{
+		// Check if an index has been saved for this pack
+		byte[] content = getIndexFile(pack_name).readAllBytes() ;
+		if(content == null) return false ;
+
+		try
+		{
+			// Check that the index was saved for the current version of the pack
+			DataInputStream input = new DataInputStream(new ByteArrayInputStream(content)) ;
+			if(input.readInt() != INDEX_FORMAT_VERSION) return false ;
+			if(!input.readUTF().equals(pack_name) || (input.readLong() != version_code)) return false ;
+
+			// Load the icon name of each component
+			int count = input.readInt() ;
+			for(int i = 0 ; i < count ; i++) appfilter.put(input.readUTF(), input.readUTF()) ;
+
+			// Load the icons IDs already resolved
+			count = input.readInt() ;
+			for(int i = 0 ; i < count ; i++) icons_ids.put(input.readUTF(), input.readInt()) ;
+			Utils.logInfo(TAG, pack_name + " index loaded (" + appfilter.size() + " components)") ;
+			return true ;
+		}
+		catch(IOException exception)
+		{
+			// The saved index is not readable, forget what may have been loaded
+			Utils.logError(TAG, exception.getMessage()) ;
+			appfilter.clear() ;
+			icons_ids.clear() ;
+			return false ;
+		}
+	}
+
+
+	/**
+	 * Save the index of the pack, with the icons IDs resolved so far, if it has been modified.
+	 */
+	synchronized void saveIndex()
+	{
+		// Do not continue if there is nothing new to save
+		if(!index_modified) return ;
+
+		try
+		{
+			// Write the header identifying the pack and its version
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream() ;
+			DataOutputStream output = new DataOutputStream(buffer) ;
+			output.writeInt(INDEX_FORMAT_VERSION) ;
+			output.writeUTF(pack_name) ;
+			output.writeLong(version_code) ;
+
+			// Write the icon name of each component
+			output.writeInt(appfilter.size()) ;
+			for(Map.Entry<String, String> entry : appfilter.entrySet())
+			{
+				output.writeUTF(entry.getKey()) ;
+				output.writeUTF(entry.getValue()) ;
+			}
+
+			// Write the icons IDs already resolved
+			output.writeInt(icons_ids.size()) ;
+			for(Map.Entry<String, Integer> entry : icons_ids.entrySet())
+			{
+				output.writeUTF(entry.getKey()) ;
+				output.writeInt(entry.getValue()) ;
+			}
+			output.close() ;
+
+			// Save the index in one write
+			if(getIndexFile(pack_name).writeAllBytes(buffer.toByteArray())) index_modified = false ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while preparing the index
+			Utils.logError(TAG, exception.getMessage()) ;
+		}
+	}
+
+
+	/**
+	 * Return the ID of an icon in the pack, resolved only once (0 if not found).
+	 */
+	@SuppressLint("DiscouragedApi")
+	private synchronized int resolveIconId(String icon_name)
+	{
+		// Resolve the icon ID in the pack if it is not known yet
+		Integer icon_id = icons_ids.get(icon_name) ;
+		if(icon_id == null)
+			{
+				icon_id = pack_resources.getIdentifier(icon_name, "drawable", pack_name) ;
+				icons_ids.put(icon_name, icon_id) ;
+				index_modified = true ;
+			}
+		return icon_id ;
+	}
+
+
+	/**
+	 * Search the icon of an application in the pack (returns <code>null</code> if not found).
+	 */
+	@SuppressLint("DiscouragedApi")
+	Drawable searchIcon(String apk, String name)
+	{
+		// Search the application in the index of the pack
+		String icon_name = appfilter.get(apk + "/" + name) ;
+		if(icon_name == null) return null ;
+
+		// Retrieve the icon ID in the pack
+		int icon_id = resolveIconId(icon_name) ;
+		if(icon_id <= 0) return null ;
+
+		try
+		{
+			// Try to load the icon from the pack
+			return ResourcesCompat.getDrawable(pack_resources, icon_id, null) ;
+		}
+		catch(Resources.NotFoundException exception)
+		{
+			// The icon was not found in the pack
+			Utils.logError(TAG, exception.getMessage()) ;
 			return null ;
 		}
 	}
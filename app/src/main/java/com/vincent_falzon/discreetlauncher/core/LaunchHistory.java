@@ -0,0 +1,286 @@
+package com.vincent_falzon.discreetlauncher.core ;
+
+// License
+/*
+
+	This file is part of Discreet Launcher.
+
+	Copyright (C) 2019-2025 Vincent Falzon
+
+	This program is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ */
+
+// Imports
+import com.vincent_falzon.discreetlauncher.Constants ;
+import com.vincent_falzon.discreetlauncher.Utils ;
+import com.vincent_falzon.discreetlauncher.storage.InternalFileBIN ;
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.io.DataInputStream ;
+import java.io.DataOutputStream ;
+import java.io.EOFException ;
+import java.io.IOException ;
+import java.util.HashMap ;
+import java.util.Iterator ;
+import java.util.Map ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+
+/**
+ * Remember when applications are launched (in an append-only file) to rank them by frequency and recency.
+ */
+public abstract class LaunchHistory
+{
+	// Constants
+	private static final String TAG = "LaunchHistory" ;
+	private static final int FORMAT_VERSION = 1 ;
+	private static final byte RECORD_LAUNCH = 0 ;
+	private static final byte RECORD_SCORE = 1 ;
+	private static final double HALF_LIFE = 7 * 24 * 3600 * 1000d ;
+	private static final double MINIMUM_SCORE = 0.01 ;
+	private static final int MAX_OBSOLETE_RECORDS = 500 ;
+
+	// Attributes
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor() ;
+	private static final HashMap<String, Entry> entries = new HashMap<>() ;
+	private static boolean loading = false ;
+	private static int generation = 0 ;
+
+
+	/**
+	 * Read the history file in the background (only once).
+	 */
+	public static synchronized void load()
+	{
+		if(loading) return ;
+		loading = true ;
+		executor.execute(LaunchHistory::readFile) ;
+	}
+
+
+	/**
+	 * Record the launch of an application (the file is written in the background).
+	 */
+	public static void recordLaunch(String component_info)
+	{
+		final long time = System.currentTimeMillis() ;
+		executor.execute(() -> {
+				// Update the score of the application (after the file has been read)
+				synchronized(LaunchHistory.class)
+				{
+					addLaunch(component_info, time) ;
+					generation++ ;
+				}
+
+				try
+				{
+					// Append the launch to the file
+					ByteArrayOutputStream buffer = new ByteArrayOutputStream() ;
+					DataOutputStream output = new DataOutputStream(buffer) ;
+					output.writeByte(RECORD_LAUNCH) ;
+					output.writeUTF(component_info) ;
+					output.writeLong(time) ;
+					output.close() ;
+					InternalFileBIN file = new InternalFileBIN(Constants.FILE_LAUNCH_HISTORY) ;
+					if(!file.exists()) writeFile() ;
+						else file.appendBytes(buffer.toByteArray()) ;
+				}
+				catch(IOException exception)
+				{
+					// An error happened while preparing the record
+					Utils.logError(TAG, exception.getMessage()) ;
+				}
+			}) ;
+	}
+
+
+	/**
+	 * Return a weight to rank an application, higher for those launched more often and more recently.
+	 * The weight does not depend on the current time, so it can be compared between applications at any time.
+	 */
+	public static synchronized double getWeight(String component_info)
+	{
+		Entry entry = entries.get(component_info) ;
+		if(entry == null) return Double.NEGATIVE_INFINITY ;
+		return entry.getWeight() ;
+	}
+
+
+	/**
+	 * Return a number which changes each time the weights change (when the history is loaded or a launch is recorded).
+	 */
+	public static synchronized int getGeneration()
+	{
+		return generation ;
+	}
+
+
+	/**
+	 * Add a launch to the score of an application (to call with the lock held).
+	 */
+	private static void addLaunch(String component_info, long time)
+	{
+		Entry entry = entries.get(component_info) ;
+		if(entry == null)
+			{
+				entry = new Entry() ;
+				entries.put(component_info, entry) ;
+			}
+		entry.add(1, time) ;
+	}
+
+
+	/**
+	 * Read the history file, then rewrite it in a compact form if it contains many obsolete records.
+	 */
+	private static void readFile()
+	{
+		// Check if the history file exists
+		byte[] content = new InternalFileBIN(Constants.FILE_LAUNCH_HISTORY).readAllBytes() ;
+		if(content == null) return ;
+
+		// Read the records
+		int records_count = 0 ;
+		boolean rewrite ;
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(content)) ;
+		synchronized(LaunchHistory.class)
+		{
+			try
+			{
+				// Ignore the file if its format is unknown
+				rewrite = (input.readInt() != FORMAT_VERSION) ;
+				while(!rewrite && (input.available() > 0))
+				{
+					// Apply each launch or saved score to the application
+					byte type = input.readByte() ;
+					String component_info = input.readUTF() ;
+					if(type == RECORD_LAUNCH) addLaunch(component_info, input.readLong()) ;
+						else if(type == RECORD_SCORE)
+						{
+							double score = input.readDouble() ;
+							long time = input.readLong() ;
+							Entry entry = new Entry() ;
+							entry.add(score, time) ;
+							entries.put(component_info, entry) ;
+						}
+						else rewrite = true ;
+					records_count++ ;
+				}
+			}
+			catch(EOFException exception)
+			{
+				// The last record is incomplete, the file must be rewritten before appending
+				rewrite = true ;
+			}
+			catch(IOException exception)
+			{
+				// The file is not readable
+				Utils.logError(TAG, exception.getMessage()) ;
+				rewrite = true ;
+			}
+
+			// Forget the applications not launched for a long time
+			long now = System.currentTimeMillis() ;
+			Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator() ;
+			while(iterator.hasNext())
+				if(iterator.next().getValue().getScore(now) < MINIMUM_SCORE) iterator.remove() ;
+
+			// Signal that the weights have changed now that the history is loaded
+			generation++ ;
+		}
+
+		// Compact the file if needed
+		if(rewrite || (records_count > entries.size() + MAX_OBSOLETE_RECORDS)) writeFile() ;
+	}
+
+
+	/**
+	 * Replace the history file by one record per application with its current score.
+	 */
+	private static void writeFile()
+	{
+		try
+		{
+			// Prepare the content
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream() ;
+			DataOutputStream output = new DataOutputStream(buffer) ;
+			output.writeInt(FORMAT_VERSION) ;
+			synchronized(LaunchHistory.class)
+			{
+				for(Map.Entry<String, Entry> entry : entries.entrySet())
+				{
+					output.writeByte(RECORD_SCORE) ;
+					output.writeUTF(entry.getKey()) ;
+					output.writeDouble(entry.getValue().score) ;
+					output.writeLong(entry.getValue().last_time) ;
+				}
+			}
+			output.close() ;
+
+			// Write the file
+			new InternalFileBIN(Constants.FILE_LAUNCH_HISTORY).writeAllBytes(buffer.toByteArray()) ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while preparing the content
+			Utils.logError(TAG, exception.getMessage()) ;
+		}
+	}
+
+
+	// ---------------------------------------------------------------------------------------------
+
+	/**
+	 * Represent the launches of an application as a score which loses half its value every HALF_LIFE.
+	 */
+	private static class Entry
+	{
+		// Attributes
+		double score = 0 ;
+		long last_time = 0 ;
+
+
+		/**
+		 * Add a value to the score at the given time, decaying the older one.
+		 */
+		void add(double value, long time)
+		{
+			if(time >= last_time)
+				{
+					score = score * Math.pow(0.5, (time - last_time) / HALF_LIFE) + value ;
+					last_time = time ;
+				}
+				else score += value * Math.pow(0.5, (last_time - time) / HALF_LIFE) ;
+		}
+
+
+		/**
+		 * Return the score at the given time.
+		 */
+		double getScore(long time)
+		{
+			return score * Math.pow(0.5, (time - last_time) / HALF_LIFE) ;
+		}
+
+
+		/**
+		 * Return the logarithm of the score expressed at a fixed time.
+		 */
+		double getWeight()
+		{
+			return (Math.log(score) / Math.log(2)) + (last_time / HALF_LIFE) ;
+		}
+	}
+}
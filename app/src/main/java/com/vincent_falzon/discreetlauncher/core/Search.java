@@ -52,15 +52,21 @@ import com.vincent_falzon.discreetlauncher.R ;
 import com.vincent_falzon.discreetlauncher.SearchAdapter ;
 import com.vincent_falzon.discreetlauncher.Utils ;
 import java.util.ArrayList ;
+import java.util.List ;
 
 /**
  * Represent the Search application.
  */
 public class Search extends Application
 {
-	// Attributes
-	private PopupWindow popup ;
-	private SearchAdapter adapter ;
+	// Popup shared by all Search instances and kept between openings
+	private static Context popupContext = null ;
+	private static View popupView = null ;
+	private static PopupWindow popup = null ;
+	private static EditText searchBar = null ;
+	private static RecyclerView recycler = null ;
+	private static SearchAdapter adapter = null ;
+	private static List<Application> indexedApplications = null ;
 
 
 	/**
@@ -69,56 +75,99 @@ public class Search extends Application
 	public Search(String display_name, Drawable icon)
 	{
 		super(display_name, Constants.APK_SEARCH, Constants.APK_SEARCH, icon, null) ;
-		popup = null ;
 	}
 
 
 	/**
-	 * Display the Search application as a popup.
+	 * Prepare the popup in advance for the given activity, or update its applications if needed.
 	 */
 	@SuppressWarnings({"RedundantCast", "RedundantSuppression"})
-	public boolean start(View parent)
+	public static void preparePopup(Context context)
 	{
-		// Initializations
-		Context context = parent.getContext() ;
-		LayoutInflater inflater = LayoutInflater.from(context) ;
-
-		// Prepare the popup view
-		View popupView = inflater.inflate(R.layout.view_popup, (ViewGroup)null) ;
-		popupView.findViewById(R.id.popup_header).setVisibility(View.INVISIBLE) ;
-		popupView.findViewById(R.id.popup_line1).setVisibility(View.INVISIBLE) ;
-		popupView.findViewById(R.id.popup_line2).setVisibility(View.VISIBLE) ;
-
-		// Prepare the search bar
-		EditText searchBar = popupView.findViewById(R.id.search_bar) ;
-		searchBar.setVisibility(View.VISIBLE) ;
-		searchBar.addTextChangedListener(new TextChangeListener()) ;
-		searchBar.setOnEditorActionListener((view, actionId, event) -> {
-				// Perform an action when the user presses "Enter"
-				if(actionId == EditorInfo.IME_ACTION_SEARCH)
-					{
-						// Launch the first app displayed in the results
-						adapter.launchFirstApp(view) ;
-						return true ;
-					}
-				return false ;
-			}) ;
+		// Create the popup only once per activity
+		if(popupContext != context)
+			{
+				// Prepare the popup view
+				popupContext = context ;
+				indexedApplications = null ;
+				popupView = LayoutInflater.from(context).inflate(R.layout.view_popup, (ViewGroup)null) ;
+				popupView.findViewById(R.id.popup_header).setVisibility(View.INVISIBLE) ;
+				popupView.findViewById(R.id.popup_line1).setVisibility(View.INVISIBLE) ;
+				popupView.findViewById(R.id.popup_line2).setVisibility(View.VISIBLE) ;
+
+				// Prepare the search bar
+				searchBar = popupView.findViewById(R.id.search_bar) ;
+				searchBar.setVisibility(View.VISIBLE) ;
+				searchBar.addTextChangedListener(new TextChangeListener()) ;
+				searchBar.setOnEditorActionListener((view, actionId, event) -> {
+						// Perform an action when the user presses "Enter"
+						if(actionId == EditorInfo.IME_ACTION_SEARCH)
+							{
+								// Launch the first app displayed in the results
+								adapter.launchFirstApp(view) ;
+								return true ;
+							}
+						return false ;
+					}) ;
+
+				// Prepare the popup content
+				recycler = popupView.findViewById(R.id.popup_recycler) ;
+				if(context instanceof ActivityMain) recycler.setRecycledViewPool(ActivityMain.getApplicationsViewPool()) ;
+				recycler.setLayoutManager(new FlexibleGridLayout(context, ActivityMain.getApplicationWidth())) ;
+				recycler.setMinimumHeight(0) ;
+				if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.S)
+					recycler.setOverScrollMode(View.OVER_SCROLL_NEVER) ;
+
+				// Create the popup representing the Search application
+				popup = new PopupWindow(popupView, LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT, true) ;
+				popupView.setOnTouchListener(new PopupTouchListener()) ;
+
+				// Fix popup not closing on press back with API 21
+				popup.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT)) ;
+
+				// Clear the search when the popup is closed, so it is ready for the next opening
+				popup.setOnDismissListener(() -> searchBar.setText("")) ;
+			}
+
+		// Index the applications again only if the list has changed (and not while results are displayed, see start())
+		if(popup.isShowing()) return ;
+		List<Application> applications = ActivityMain.getApplicationsList().getApplications(false) ;
+		if(applications == indexedApplications) return ;
+		indexedApplications = applications ;
 
 		// Retrieve all the applications without folders and the Search
-		ArrayList<Application> applications = ActivityMain.getApplicationsList().getApplications(false) ;
-		Application search = null ;
+		ArrayList<Application> searchable = new ArrayList<>() ;
 		for(Application application : applications)
-			if(application instanceof Search) search = application ;
-		if(search != null) applications.remove(search) ;
-
-		// Prepare the popup content
-		RecyclerView recycler = popupView.findViewById(R.id.popup_recycler) ;
-		adapter = new SearchAdapter(context, applications) ;
+			if(!(application instanceof Search)) searchable.add(application) ;
+		adapter = new SearchAdapter(context, searchable) ;
 		recycler.setAdapter(adapter) ;
-		recycler.setLayoutManager(new FlexibleGridLayout(context, ActivityMain.getApplicationWidth())) ;
-		recycler.setMinimumHeight(0) ;
-		if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.S)
-			recycler.setOverScrollMode(View.OVER_SCROLL_NEVER) ;
+	}
+
+
+	/**
+	 * Forget the popup (to call when its activity is destroyed).
+	 */
+	public static void releasePopup()
+	{
+		if(popup != null) popup.dismiss() ;
+		popupContext = null ;
+		popupView = null ;
+		popup = null ;
+		searchBar = null ;
+		recycler = null ;
+		adapter = null ;
+		indexedApplications = null ;
+	}
+
+
+	/**
+	 * Display the Search application as a popup.
+	 */
+	public boolean start(View parent)
+	{
+		// Retrieve the popup prepared in advance (or prepare it now)
+		Context context = parent.getContext() ;
+		preparePopup(context) ;
 
 		// Retrieve the app drawer colors
 		SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context) ;
@@ -135,13 +184,6 @@ public class Search extends Application
 		recycler.setBackgroundColor(search_background_color) ;
 		adapter.setTextColor(text_color) ;
 
-		// Create the popup representing the Search application
-		popup = new PopupWindow(popupView, LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT, true) ;
-		popupView.setOnTouchListener(new PopupTouchListener()) ;
-
-		// Fix popup not closing on press back with API 21
-		popup.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT)) ;
-
 		// Display the popup and the keyboard
 		popup.showAtLocation(parent, Gravity.BOTTOM, 0, 0) ;
 		((InputMethodManager)context.getSystemService(Activity.INPUT_METHOD_SERVICE)).toggleSoftInputFromWindow(parent.getWindowToken(), InputMethod.SHOW_EXPLICIT, 0) ;
@@ -151,9 +193,9 @@ public class Search extends Application
 
 
 	/**
-	 * Dismiss the popup if it is currently displayed.
+	 * Dismiss the search popup if it is currently displayed.
 	 */
-	public void closePopup()
+	public static void closePopup()
 	{
 		if(popup != null) popup.dismiss() ;
 	}
@@ -164,7 +206,7 @@ public class Search extends Application
 	/**
 	 * Dismiss the popup when the user touchs outside of it (needs <code>focusable = true</code>).
 	 */
-	private class PopupTouchListener implements View.OnTouchListener
+	private static class PopupTouchListener implements View.OnTouchListener
 	{
 		/**
 		 * Called when an element is touched.
@@ -174,7 +216,7 @@ public class Search extends Application
 		{
 			// Close the popup and mark the event as consumed
 			view.performClick() ;
-			closePopup() ;
+			if(popup != null) popup.dismiss() ;
 			return true ;
 		}
 	}
@@ -185,7 +227,7 @@ public class Search extends Application
 	/**
 	 * Called when the text of an EditText is changed by the user.
 	 */
-	private class TextChangeListener implements TextWatcher
+	private static class TextChangeListener implements TextWatcher
 	{
 		// Needed to implement TextWatcher
 		@Override
@@ -199,7 +241,7 @@ public class Search extends Application
 		public void onTextChanged(CharSequence text, int start, int before, int count)
 		{
 			// Update the display of the RecyclerView
-			adapter.getFilter().filter(text) ;
+			if(adapter != null) adapter.filterAfterDelay(text) ;
 		}
 
 		// Needed to implement TextWatcher
@@ -68,6 +68,7 @@ public class Shortcut extends Application
 				{
 					// Try to launch the shortcut
 					context.startActivity(Intent.parseUri(name, 0)) ;
+					LaunchHistory.recordLaunch(component_info) ;
 				}
 				catch(URISyntaxException | ActivityNotFoundException exception)
 				{
@@ -106,6 +107,7 @@ public class Shortcut extends Application
 				{
 					// Try to launch the shortcut
 					launcher.startShortcut(shortcut[0], shortcut[1], null, null, UserHandle.getUserHandleForUid(user_id)) ;
+					LaunchHistory.recordLaunch(component_info) ;
 				}
 				catch(ActivityNotFoundException | IllegalStateException exception)
 				{
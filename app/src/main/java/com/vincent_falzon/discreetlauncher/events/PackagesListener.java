@@ -28,7 +28,10 @@ import android.content.Context ;
 import android.content.Intent ;
 import android.content.IntentFilter ;
 import com.vincent_falzon.discreetlauncher.Utils ;
+import com.vincent_falzon.discreetlauncher.core.ApplicationsList ;
+import com.vincent_falzon.discreetlauncher.storage.StoredFile ;
 import static com.vincent_falzon.discreetlauncher.ActivityMain.updateList ;
+import static com.vincent_falzon.discreetlauncher.ActivityMain.updatePackage ;
 
 /**
  * Listen for packages additions and deletions.
@@ -61,13 +64,27 @@ public class PackagesListener extends BroadcastReceiver
 		// Check if the intent is valid
 		if(intent == null) return ;
 		Utils.logDebug(TAG, "received " + intent) ;
+		StoredFile.initialize(context) ;
 
-		// Do not react to applications updates
-		if(intent.getBooleanExtra(Intent.EXTRA_REPLACING, false)) return ;
+		// Retrieve the action and the package concerned
+		String action = intent.getAction() ;
+		if(intent.getData() == null) return ;
+		String apk = intent.getData().getSchemeSpecificPart() ;
+
+		// Do not react to applications updates, except when a selected icon pack has been updated
+		if(intent.getBooleanExtra(Intent.EXTRA_REPLACING, false))
+			{
+				if(Intent.ACTION_PACKAGE_ADDED.equals(action) && ApplicationsList.forgetIconPack(context, apk))
+					updateList(context) ;
+				return ;
+			}
 
 		// If a package has been added or removed, update the list of applications
-		String action = intent.getAction() ;
 		if(Intent.ACTION_PACKAGE_ADDED.equals(action) || Intent.ACTION_PACKAGE_REMOVED.equals(action))
-			updateList(context) ;
+			{
+				// Rebuild the whole list for a selected icon pack, otherwise update only the package applications
+				if(ApplicationsList.forgetIconPack(context, apk)) updateList(context) ;
+					else updatePackage(context, apk) ;
+			}
 	}
 }
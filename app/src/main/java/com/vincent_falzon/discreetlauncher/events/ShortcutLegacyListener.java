@@ -32,6 +32,7 @@ import android.os.Build ;
 import com.vincent_falzon.discreetlauncher.Constants ;
 import com.vincent_falzon.discreetlauncher.R ;
 import com.vincent_falzon.discreetlauncher.Utils ;
+import com.vincent_falzon.discreetlauncher.storage.StoredFile ;
 import static com.vincent_falzon.discreetlauncher.ActivityMain.updateList ;
 
 /**
@@ -58,6 +59,9 @@ public class ShortcutLegacyListener extends BroadcastReceiver
 	@Override
 	public void onReceive(Context context, Intent intent)
 	{
+		// Locate the stored files as the launcher may not be started yet
+		StoredFile.initialize(context) ;
+
 		// Execute the following code only if the Android version is before Oreo
 		if(Build.VERSION.SDK_INT < Build.VERSION_CODES.O)
 			{
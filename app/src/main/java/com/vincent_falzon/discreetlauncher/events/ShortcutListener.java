@@ -39,6 +39,7 @@ import com.vincent_falzon.discreetlauncher.R ;
 import com.vincent_falzon.discreetlauncher.Utils ;
 import com.vincent_falzon.discreetlauncher.storage.InternalFilePNG ;
 import com.vincent_falzon.discreetlauncher.storage.InternalFileTXT ;
+import com.vincent_falzon.discreetlauncher.storage.StoredFile ;
 import java.util.ArrayList ;
 
 /**
@@ -58,6 +59,7 @@ public class ShortcutListener extends AppCompatActivity
 	{
 		// Let the parent actions be performed
 		super.onCreate(savedInstanceState) ;
+		StoredFile.initialize(this) ;
 
 		// Execute the following code only if the Android version is Oreo or higher
 		if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.O)
@@ -150,16 +152,14 @@ public class ShortcutListener extends AppCompatActivity
 	 */
 	public static void removeShortcut(Context context, String name, String shortcut_apk, String component_info)
 	{
-		// Save the current shortcuts list and remove the file
+		// Retrieve the current shortcuts list
 		InternalFileTXT file = new InternalFileTXT(shortcut_apk.equals(Constants.APK_SHORTCUT_LEGACY) ? Constants.FILE_SHORTCUTS_LEGACY : Constants.FILE_SHORTCUTS) ;
 		ArrayList<String> currentShortcuts = file.readAllLines() ;
-		if(!file.remove())
-			{
-				Utils.displayLongToast(context, context.getString(R.string.error_shortcut_remove, file.getName())) ;
-				return ;
-			}
+		if(currentShortcuts == null) return ;
 
-		// Write the new shortcuts list in the file
+		// Prepare the new shortcuts list
+		ArrayList<String> newShortcuts = new ArrayList<>() ;
+		boolean removed = false ;
 		for(String shortcut_line : currentShortcuts)
 		{
 			// Check if the line contains the internal name of the shortcut to remove
@@ -170,15 +170,23 @@ public class ShortcutListener extends AppCompatActivity
 					InternalFilePNG icon = new InternalFilePNG(Constants.FILE_ICON_SHORTCUT_PREFIX + shortcut[0] + ".png") ;
 					icon.remove() ;
 
-					// Remove the shortcut from the favorites if it was there
-					new InternalFileTXT(Constants.FILE_FAVORITES).removeLine(component_info) ;
-
-					// Skip adding back the shortcut to the file
+					// Skip adding back the shortcut to the list
+					removed = true ;
 					continue ;
 				}
 
 			// Add all the other shortcuts to the list again
-			file.writeLine(shortcut_line) ;
+			newShortcuts.add(shortcut_line) ;
 		}
+
+		// Write the new shortcuts list in the file in one step
+		if(!file.replaceAll(newShortcuts))
+			{
+				Utils.displayLongToast(context, context.getString(R.string.error_shortcut_remove, file.getName())) ;
+				return ;
+			}
+
+		// Remove the shortcut from the favorites if it was there
+		if(removed) new InternalFileTXT(Constants.FILE_FAVORITES).removeLine(component_info) ;
 	}
 }
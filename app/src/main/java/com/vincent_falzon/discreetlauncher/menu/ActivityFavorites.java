@@ -46,9 +46,10 @@ import com.vincent_falzon.discreetlauncher.R ;
 import com.vincent_falzon.discreetlauncher.core.Application ;
 import com.vincent_falzon.discreetlauncher.core.Folder ;
 import com.vincent_falzon.discreetlauncher.storage.InternalFileTXT ;
-import java.text.Collator ;
+import com.vincent_falzon.discreetlauncher.storage.StoredFile ;
 import java.util.ArrayList ;
 import java.util.Collections ;
+import java.util.List ;
 
 /**
  * Allow to manage favorites.
@@ -73,6 +74,7 @@ public class ActivityFavorites extends AppCompatActivity implements View.OnClick
 		super.onCreate(savedInstanceState) ;
 
 		// Initializations
+		StoredFile.initialize(this) ;
 		setContentView(R.layout.activity_favorites) ;
 		folder_icon = AppCompatResources.getDrawable(this, R.drawable.icon_folder) ;
 		icon_size = Math.round(32 * getResources().getDisplayMetrics().density) ;
@@ -114,7 +116,7 @@ public class ActivityFavorites extends AppCompatActivity implements View.OnClick
 	{
 		// Prepare the list of applications
 		final ArrayList<Application> applications = new ArrayList<>(ActivityMain.getApplicationsList().getFavorites()) ;
-		ArrayList<Application> allApplications = ActivityMain.getApplicationsList().getApplications(true) ;
+		List<Application> allApplications = ActivityMain.getApplicationsList().getApplications(true) ;
 		for(Application application : allApplications)
 			if(!applications.contains(application)) applications.add(application) ;
 
@@ -142,9 +144,10 @@ public class ActivityFavorites extends AppCompatActivity implements View.OnClick
 		dialog.setMultiChoiceItems(app_names, selected, (dialogInterface, position, checked) -> { }) ;
 		dialog.setPositiveButton(R.string.button_apply, (dialogInterface, position) -> {
 				// Replace the internal file content with the new selected applications
-				if(!file.remove()) return ;
+				ArrayList<String> selected_favorites = new ArrayList<>() ;
 				for(position = 0 ; position < selected.length ; position++)
-					if(selected[position]) file.writeLine(applications.get(position).getComponentInfo()) ;
+					if(selected[position]) selected_favorites.add(applications.get(position).getComponentInfo()) ;
+				if(!file.replaceAll(selected_favorites)) return ;
 
 				// Update the list of favorites
 				ActivityMain.updateFavorites(null) ;
@@ -169,9 +172,7 @@ public class ActivityFavorites extends AppCompatActivity implements View.OnClick
 		dialog.setMessage(R.string.warning_sort_favorites_alphabetically) ;
 		dialog.setPositiveButton(R.string.button_sort, (dialogInterface, which) -> {
 				// Sort the favorites in alphabetical order based on display name
-				Collator collator = Collator.getInstance() ;
-				collator.setStrength(Collator.PRIMARY) ;
-				Collections.sort(favorites, (application1, application2) -> collator.compare(application1.getDisplayName(), application2.getDisplayName())) ;
+				Collections.sort(favorites, Application::compareByDisplayName) ;
 
 				// Update the list of favorites
 				adapter.notifyDataSetChanged() ;
@@ -191,9 +192,9 @@ public class ActivityFavorites extends AppCompatActivity implements View.OnClick
 		super.onPause() ;
 
 		// Write the last favorites order in the file
-		InternalFileTXT file = new InternalFileTXT(Constants.FILE_FAVORITES) ;
-		if(file.remove())
-			for(Application application : favorites) file.writeLine(application.getComponentInfo()) ;
+		ArrayList<String> favorites_order = new ArrayList<>() ;
+		for(Application application : favorites) favorites_order.add(application.getComponentInfo()) ;
+		new InternalFileTXT(Constants.FILE_FAVORITES).replaceAll(favorites_order) ;
 
 		// Update the favorite applications list
 		ActivityMain.updateFavorites(this) ;
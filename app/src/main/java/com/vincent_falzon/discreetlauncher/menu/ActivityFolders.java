@@ -55,7 +55,9 @@ import com.vincent_falzon.discreetlauncher.core.Folder ;
 import com.vincent_falzon.discreetlauncher.core.FolderIcon ;
 import com.vincent_falzon.discreetlauncher.settings.ColorPickerDialog ;
 import com.vincent_falzon.discreetlauncher.storage.InternalFileTXT ;
+import com.vincent_falzon.discreetlauncher.storage.StoredFile ;
 import java.util.ArrayList ;
+import java.util.Iterator ;
 
 /**
  * Allow to manage folders.
@@ -77,6 +79,7 @@ public class ActivityFolders extends AppCompatActivity implements View.OnClickLi
 		super.onCreate(savedInstanceState);
 
 		// Interface initializations
+		StoredFile.initialize(this) ;
 		setContentView(R.layout.activity_folders) ;
 		findViewById(R.id.new_folder_button).setOnClickListener(this) ;
 		folders = ActivityMain.getApplicationsList().getFolders() ;
@@ -244,21 +247,26 @@ public class ActivityFolders extends AppCompatActivity implements View.OnClickLi
 								ColorPickerDialog.convertIntColorToHexadecimal(ContextCompat.getColor(context, R.color.for_icon_added_in_drawer), true),
 								folder.getDisplayName(),
 								color -> {
-									// Remove the previous color from the mapping file
+									// Replace the previous color by the new one in the mapping file (in one step)
 									InternalFileTXT folders_colors = new InternalFileTXT(Constants.FILE_FOLDERS_COLORS) ;
-									folders_colors.removeLine(folder.getFileName() + Constants.SEPARATOR) ;
-
-									// Registrer the new color and update the applications list
-									folders_colors.writeLine(folder.getFileName() + Constants.SEPARATOR + color) ;
-									ActivityMain.updateList(context) ;
-									notifyDataSetChanged() ;
-
-									// Update the preview in the folders organizer
+									ArrayList<String> colors_mapping = folders_colors.readAllLines() ;
+									if(colors_mapping == null) colors_mapping = new ArrayList<>() ;
+									for(Iterator<String> iterator = colors_mapping.iterator() ; iterator.hasNext() ; )
+										if(iterator.next().startsWith(folder.getFileName() + Constants.SEPARATOR)) iterator.remove() ;
+									colors_mapping.add(folder.getFileName() + Constants.SEPARATOR + color) ;
+									folders_colors.replaceAll(colors_mapping) ;
+
+									// Update the folder color and the applications list
 									folder.setColor(ColorPickerDialog.convertHexadecimalColorToInt(color)) ;
-									ArrayList<Folder> all_folders = ActivityMain.getApplicationsList().getFolders() ;
-									for(Folder the_folder : all_folders)
-										if(the_folder.getComponentInfo().equals(folder.getComponentInfo()))
-											folder.setIcon(the_folder.getIcon()) ;
+									ActivityMain.updateList(context, () -> {
+											// Update the preview in the folders organizer once the new icon is built
+											ArrayList<Folder> all_folders = ActivityMain.getApplicationsList().getFolders() ;
+											for(Folder the_folder : all_folders)
+												if(the_folder.getComponentInfo().equals(folder.getComponentInfo()))
+													folder.setIcon(the_folder.getIcon()) ;
+											notifyDataSetChanged() ;
+										}) ;
+									notifyDataSetChanged() ;
 								}) ;
 						colorDialog.show() ;
 					}
@@ -292,28 +300,29 @@ public class ActivityFolders extends AppCompatActivity implements View.OnClickLi
 									String current_filename = folder.getFileName() ;
 									if(file.rename(Constants.FILE_FOLDER_PREFIX + new_folder_name + ".txt"))
 										{
-											// If it exists, browse the file mapping folders and colors
+											// If it exists, replace the previous name by the new one in the file mapping folders and colors
 											InternalFileTXT folders_colors = new InternalFileTXT(Constants.FILE_FOLDERS_COLORS) ;
 											ArrayList<String> file_content = folders_colors.readAllLines() ;
 											if(file_content != null)
 												{
-													// If a mapping already exists, reproduce it with the new name
-													for(String line : file_content)
-														if(line.startsWith(current_filename))
-															{
-																String color = line.replace(current_filename + Constants.SEPARATOR, "") ;
-																folders_colors.writeLine(new_filename + Constants.SEPARATOR + color) ;
-															}
-
-													// Remove the mapping with the previous name
-													folders_colors.removeLine(current_filename) ;
+													for(int i = 0 ; i < file_content.size() ; i++)
+														if(file_content.get(i).startsWith(current_filename))
+															file_content.set(i, new_filename + Constants.SEPARATOR + file_content.get(i).replace(current_filename + Constants.SEPARATOR, "")) ;
+													folders_colors.replaceAll(file_content) ;
 												}
 
-											// Update the favorites if necessary
+											// Update the favorites if necessary (keeping the folder at the same place)
 											InternalFileTXT favorites = new InternalFileTXT(Constants.FILE_FAVORITES) ;
-											boolean was_in_favorites = favorites.removeLine(folder.getComponentInfo()) ;
+											String previous_component_info = folder.getComponentInfo() ;
 											folder.setDisplayName(new_folder_name) ;
-											if(was_in_favorites) favorites.writeLine(folder.getComponentInfo()) ;
+											ArrayList<String> favorites_content = favorites.readAllLines() ;
+											if((favorites_content != null) && favorites_content.contains(previous_component_info))
+												{
+													for(int i = 0 ; i < favorites_content.size() ; i++)
+														if(favorites_content.get(i).equals(previous_component_info))
+															favorites_content.set(i, folder.getComponentInfo()) ;
+													favorites.replaceAll(favorites_content) ;
+												}
 
 											// Update the applications list
 											ActivityMain.updateList(context) ;
@@ -348,15 +357,11 @@ public class ActivityFolders extends AppCompatActivity implements View.OnClickLi
 						// Let the user select the folder content
 						dialog.setMultiChoiceItems(app_names, selected, (dialogInterface, position, checked) -> { }) ;
 						dialog.setPositiveButton(R.string.button_apply, (dialogInterface, which) -> {
-									// Remove the current folder file
-									if(!file.remove()) return ;
-
-									// Add the selected applications in the folder
+									// Replace the folder file content with the selected applications
+									ArrayList<String> folder_content = new ArrayList<>() ;
 									for(int j = 0 ; j < selected.length ; j++)
-										if(selected[j]) file.writeLine(applications.get(j).getComponentInfo()) ;
-
-									// Recreate the empty file if the removed line was the single one
-									if(!file.exists()) file.writeLine("") ;
+										if(selected[j]) folder_content.add(applications.get(j).getComponentInfo()) ;
+									if(!file.replaceAll(folder_content)) return ;
 
 									// Update the display in the activity
 									folder.getApplications().clear() ;
@@ -77,12 +77,11 @@ public abstract class DialogHiddenApps
 		dialog.setTitle(context.getString(R.string.menu_hidden_apps)) ;
 		dialog.setMultiChoiceItems(app_names, selected, (dialogInterface, position, checked) -> { }) ;
 		dialog.setPositiveButton(R.string.button_apply, (dialogInterface, which) -> {
-				// Remove the current file
-				if(!file.remove()) return ;
-
-				// Write the new selected applications to the file
+				// Replace the file content with the new selected applications
+				ArrayList<String> hidden_apps = new ArrayList<>() ;
 				for(int j = 0 ; j < selected.length ; j++)
-					if(selected[j]) file.writeLine(applications.get(j).getComponentInfo()) ;
+					if(selected[j]) hidden_apps.add(applications.get(j).getComponentInfo()) ;
+				if(!file.replaceAll(hidden_apps)) return ;
 
 				// Refresh the list of apps and go back to the home screen
 				ActivityMain.updateList(context) ;
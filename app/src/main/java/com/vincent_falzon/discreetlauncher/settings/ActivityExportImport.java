@@ -41,6 +41,8 @@ import com.vincent_falzon.discreetlauncher.storage.* ;
 import java.text.SimpleDateFormat ;
 import java.util.ArrayList ;
 import java.util.Date ;
+import java.util.LinkedHashMap ;
+import java.util.Map ;
 
 /**
  * Allow to import and export settings, favorites applications and shortcuts.
@@ -53,6 +55,7 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 	// Attributes
 	private SharedPreferences settings ;
 	private SharedPreferences.Editor editor ;
+	private LinkedHashMap<String, ArrayList<String>> importedFiles ;
 	private ActivityResultLauncher<String> exportFilePicker ;
 	private ActivityResultLauncher<String> importFilePicker ;
 
@@ -67,6 +70,7 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 		super.onCreate(savedInstanceState) ;
 
 		// Initializations
+		StoredFile.initialize(this) ;
 		setContentView(R.layout.activity_export_import) ;
 		settings = PreferenceManager.getDefaultSharedPreferences(getApplicationContext()) ;
 		findViewById(R.id.export_button).setOnClickListener(this) ;
@@ -133,7 +137,7 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 		// Save the content of all internal files
 		exportedData.add("# " + getString(R.string.export_import_header_internal_files)) ;
 		exportedData.addAll(new InternalFileTXT(Constants.FILE_FAVORITES).prepareForExport()) ;
-		String[] folders_files = InternalFile.searchFilesStartingWith(this, Constants.FILE_FOLDER_PREFIX) ;
+		String[] folders_files = StoredFile.searchFilesStartingWith(Constants.FILE_FOLDER_PREFIX) ;
 		if(folders_files != null)
 			for(String folder : folders_files)
 				exportedData.addAll(new InternalFileTXT(folder).prepareForExport()) ;
@@ -184,7 +188,7 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 
 		// Save all custom icons
 		exportedData.add("# " + getString(R.string.export_import_header_icons)) ;
-		String[] shortcuts_icons = InternalFile.searchFilesStartingWith(this, Constants.FILE_ICON_SHORTCUT_PREFIX) ;
+		String[] shortcuts_icons = StoredFile.searchFilesStartingWith(Constants.FILE_ICON_SHORTCUT_PREFIX) ;
 		if(shortcuts_icons != null)
 			for(String icon : shortcuts_icons)
 				exportedData.add(new InternalFilePNG(icon).prepareForExport()) ;
@@ -237,7 +241,8 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 				return ;
 			}
 
-		// Prepare the files that need to be replaced
+		// Prepare the files that need to be replaced (all the changes are saved together at the end)
+		StoredFile.beginBatch() ;
 		InternalFileTXT favorites = new InternalFileTXT(Constants.FILE_FAVORITES) ;
 		InternalFileTXT folders_colors = new InternalFileTXT(Constants.FILE_FOLDERS_COLORS) ;
 		InternalFileTXT hidden = new InternalFileTXT(Constants.FILE_HIDDEN) ;
@@ -252,12 +257,12 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 		shortcuts_legacy.remove() ;
 
 		// Remove any existing folder
-		String[] folders_files = InternalFile.searchFilesStartingWith(this, Constants.FILE_FOLDER_PREFIX) ;
+		String[] folders_files = StoredFile.searchFilesStartingWith(Constants.FILE_FOLDER_PREFIX) ;
 		if(folders_files != null)
 			for(String folder : folders_files) new InternalFileTXT(folder).remove() ;
 
 		// Remove any existing shortcut icon
-		String[] shortcuts_icons = InternalFile.searchFilesStartingWith(this, Constants.FILE_ICON_SHORTCUT_PREFIX) ;
+		String[] shortcuts_icons = StoredFile.searchFilesStartingWith(Constants.FILE_ICON_SHORTCUT_PREFIX) ;
 		if(shortcuts_icons != null)
 			for(String icon : shortcuts_icons) new InternalFilePNG(icon).remove() ;
 
@@ -268,8 +273,9 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 		PreferenceManager.setDefaultValues(this, R.xml.settings_operation, true) ;
 		ActivityMain.setSkipListUpdate(false) ;
 
-		// Browse the lines of the import file
+		// Browse the lines of the import file (the internal files are written once at the end)
 		editor = settings.edit() ;
+		importedFiles = new LinkedHashMap<>() ;
 		boolean old_clock_found = false ;
 		boolean old_clock_status = false ;
 		for(String line : importedData)
@@ -283,13 +289,13 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 			String value = line.replace(target + ": ", "") ;
 
 			// Create the internal files
-			if(target.equals(Constants.FILE_FAVORITES)) writeLineToInternalFile(favorites, value) ;
-				else if(target.equals(Constants.FILE_FOLDERS_COLORS)) writeLineToInternalFile(folders_colors, value) ;
-				else if(target.equals(Constants.FILE_HIDDEN)) writeLineToInternalFile(hidden, value) ;
-				else if(target.equals(Constants.FILE_RENAME_APPS)) writeLineToInternalFile(rename_apps, value) ;
-				else if(target.equals(Constants.FILE_SHORTCUTS)) writeLineToInternalFile(shortcuts, value) ;
-				else if(target.equals(Constants.FILE_SHORTCUTS_LEGACY)) writeLineToInternalFile(shortcuts_legacy, value) ;
-				else if(target.startsWith(Constants.FILE_FOLDER_PREFIX)) writeLineToInternalFile(new InternalFileTXT(target), value) ;
+			if(target.equals(Constants.FILE_FAVORITES)) addLineToInternalFile(target, value) ;
+				else if(target.equals(Constants.FILE_FOLDERS_COLORS)) addLineToInternalFile(target, value) ;
+				else if(target.equals(Constants.FILE_HIDDEN)) addLineToInternalFile(target, value) ;
+				else if(target.equals(Constants.FILE_RENAME_APPS)) addLineToInternalFile(target, value) ;
+				else if(target.equals(Constants.FILE_SHORTCUTS)) addLineToInternalFile(target, value) ;
+				else if(target.equals(Constants.FILE_SHORTCUTS_LEGACY)) addLineToInternalFile(target, value) ;
+				else if(target.startsWith(Constants.FILE_FOLDER_PREFIX)) addLineToInternalFile(target, value) ;
 				else if(target.startsWith(Constants.FILE_ICON_SHORTCUT_PREFIX)) new InternalFilePNG(target).loadFromImport(value) ;
 				// Load the settings
 				else if(target.equals(Constants.APPLICATION_THEME)) editor.putString(target, value) ;
@@ -342,6 +348,12 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 		}
 		editor.apply() ;
 
+		// Write each internal file in one step
+		for(Map.Entry<String, ArrayList<String>> importedFile : importedFiles.entrySet())
+			new InternalFileTXT(importedFile.getKey()).replaceAll(importedFile.getValue()) ;
+		importedFiles = null ;
+		StoredFile.endBatch() ;
+
 		// Update the applications list
 		ActivityMain.updateList(this) ;
 		Utils.logInfo(TAG, "import completed") ;
@@ -349,12 +361,18 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 
 
 	/**
-	 * Unless it is "none", write the given value as a line in an internal file.
+	 * Unless it is "none", add the given value to the lines to write in an internal file.
 	 */
-	private void writeLineToInternalFile(InternalFileTXT file, String value)
+	private void addLineToInternalFile(String filename, String value)
 	{
 		if(value.equals(Constants.NONE)) return ;
-		file.writeLine(value) ;
+		ArrayList<String> lines = importedFiles.get(filename) ;
+		if(lines == null)
+			{
+				lines = new ArrayList<>() ;
+				importedFiles.put(filename, lines) ;
+			}
+		lines.add(value) ;
 	}
 
 
@@ -376,7 +394,7 @@ public class ActivityExportImport extends AppCompatActivity implements View.OnCl
 			case Constants.OLD_HIDDEN_APPLICATIONS :
 				String[] app_details = value.split(Constants.OLD_HIDDEN_APPS_SEPARATOR) ;
 				if(app_details.length >= 2)
-					new InternalFileTXT(Constants.FILE_HIDDEN).writeLine(app_details[1]) ;
+					addLineToInternalFile(Constants.FILE_HIDDEN, app_details[1]) ;
 				break ;
 			case Constants.OLD_ICON_SIZE :
 				int icon_size = Integer.parseInt(value) * 12 ;
@@ -38,6 +38,7 @@ import com.vincent_falzon.discreetlauncher.R ;
 import com.vincent_falzon.discreetlauncher.core.Application ;
 import com.vincent_falzon.discreetlauncher.core.Folder ;
 import java.util.ArrayList ;
+import java.util.List ;
 
 /**
  * Settings and Help activity.
@@ -89,7 +90,7 @@ public class ActivitySettingsOperation extends AppCompatActivity
 	private void loadInstalledApplications()
 	{
 		// Retrieve the list of all installed applications
-		ArrayList<Application> allApplications = ActivityMain.getApplicationsList().getApplications(true) ;
+		List<Application> allApplications = ActivityMain.getApplicationsList().getApplications(true) ;
 
 		// Store the retrieved information in the lists
 		for(Application application : allApplications)
@@ -0,0 +1,595 @@
+package com.vincent_falzon.discreetlauncher.storage ;
+
+// License
+/*
+
+	This file is part of Discreet Launcher.
+
+	Copyright (C) 2019-2025 Vincent Falzon
+
+	This program is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ */
+
+// Imports
+import android.content.Context ;
+import com.vincent_falzon.discreetlauncher.Constants ;
+import com.vincent_falzon.discreetlauncher.Utils ;
+import java.io.BufferedReader ;
+import java.io.ByteArrayInputStream ;
+import java.io.ByteArrayOutputStream ;
+import java.io.DataInputStream ;
+import java.io.DataOutputStream ;
+import java.io.File ;
+import java.io.FileReader ;
+import java.io.IOException ;
+import java.util.ArrayList ;
+import java.util.List ;
+import java.util.Map ;
+import java.util.TreeMap ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.Executors ;
+import java.util.zip.CRC32 ;
+import static com.vincent_falzon.discreetlauncher.ActivityMain.getInternalFolder ;
+
+/**
+ * Keep all the customizations (favorites, folders, hidden, renamed apps, shortcuts and their icons) in memory and in two files.
+ */
+final class CustomizationStore
+{
+	// Constants
+	private static final String TAG = "CustomizationStore" ;
+	private static final int FORMAT_MAGIC = 0x444c4353 ;
+	private static final int FORMAT_VERSION = 1 ;
+	private static final String BACKUP_SUFFIX = ".bak" ;
+	private static final String CORRUPTED_SUFFIX = ".corrupted" ;
+	private static final String[] LEGACY_FILES = {
+			Constants.FILE_FAVORITES,
+			Constants.FILE_FOLDERS_COLORS,
+			Constants.FILE_HIDDEN,
+			Constants.FILE_RENAME_APPS,
+			Constants.FILE_SHORTCUTS,
+			Constants.FILE_SHORTCUTS_LEGACY,
+		} ;
+
+	// Attributes
+	private static final ExecutorService writer = Executors.newSingleThreadExecutor() ;
+	private static final TreeMap<String, ArrayList<String>> texts = new TreeMap<>() ;
+	private static final TreeMap<String, byte[]> images = new TreeMap<>() ;
+	private static File folder = null ;
+	private static boolean loaded = false ;
+	private static boolean texts_modified = false ;
+	private static boolean images_modified = false ;
+	private static boolean texts_read_only = false ;
+	private static boolean images_read_only = false ;
+	private static boolean save_scheduled = false ;
+	private static int batch_depth = 0 ;
+
+
+	/**
+	 * Set the folder of the store from the context of the launcher (before any access, if possible).
+	 */
+	static synchronized void setFolder(Context context)
+	{
+		if(folder == null) folder = context.getApplicationContext().getFilesDir() ;
+	}
+
+
+	/**
+	 * Check if an entry with the given name exists.
+	 */
+	static synchronized boolean contains(String name)
+	{
+		load() ;
+		return texts.containsKey(name) || images.containsKey(name) ;
+	}
+
+
+	/**
+	 * Return a copy of the lines of the given text entry, or <code>null</code> if it does not exist.
+	 */
+	static synchronized ArrayList<String> getLines(String name)
+	{
+		load() ;
+		ArrayList<String> lines = texts.get(name) ;
+		return (lines == null) ? null : new ArrayList<>(lines) ;
+	}
+
+
+	/**
+	 * Check if the given text entry contains the given line.
+	 */
+	static synchronized boolean containsLine(String name, String line)
+	{
+		load() ;
+		ArrayList<String> lines = texts.get(name) ;
+		return (lines != null) && lines.contains(line) ;
+	}
+
+
+	/**
+	 * Add a line at the end of a text entry (created if it does not exist).
+	 * @return <code>true</code> if the change will be saved, <code>false</code> otherwise
+	 */
+	static synchronized boolean addLine(String name, String line)
+	{
+		load() ;
+		ArrayList<String> lines = texts.get(name) ;
+		if(lines == null)
+			{
+				lines = new ArrayList<>() ;
+				texts.put(name, lines) ;
+			}
+		lines.add(line) ;
+		return textsModified() ;
+	}
+
+
+	/**
+	 * Replace the content of a text entry (created if it does not exist).
+	 * @return <code>true</code> if the change will be saved, <code>false</code> otherwise
+	 */
+	static synchronized boolean setLines(String name, List<String> lines)
+	{
+		load() ;
+		texts.put(name, new ArrayList<>(lines)) ;
+		return textsModified() ;
+	}
+
+
+	/**
+	 * Return the content of the given image entry, or <code>null</code> if it does not exist.
+	 */
+	static synchronized byte[] getImage(String name)
+	{
+		load() ;
+		return images.get(name) ;
+	}
+
+
+	/**
+	 * Replace the content of an image entry (created if it does not exist).
+	 * @return <code>true</code> if the change will be saved, <code>false</code> otherwise
+	 */
+	static synchronized boolean setImage(String name, byte[] content)
+	{
+		load() ;
+		images.put(name, content) ;
+		return imagesModified() ;
+	}
+
+
+	/**
+	 * Remove an entry (considered as successful if not existing).
+	 * @return <code>true</code> if the change will be saved, <code>false</code> otherwise
+	 */
+	static synchronized boolean remove(String name)
+	{
+		load() ;
+		if(texts.remove(name) != null) return textsModified() ;
+		if(images.remove(name) != null) return imagesModified() ;
+		return true ;
+	}
+
+
+	/**
+	 * Rename an entry (fails if the new name is already used).
+	 * @return <code>true</code> if the change will be saved, <code>false</code> otherwise
+	 */
+	static synchronized boolean rename(String name, String new_name)
+	{
+		load() ;
+		if(texts.containsKey(new_name) || images.containsKey(new_name)) return false ;
+		if(texts.containsKey(name))
+			{
+				texts.put(new_name, texts.remove(name)) ;
+				return textsModified() ;
+			}
+		if(images.containsKey(name))
+			{
+				images.put(new_name, images.remove(name)) ;
+				return imagesModified() ;
+			}
+		return false ;
+	}
+
+
+	/**
+	 * Return the names of the entries starting with the given prefix.
+	 */
+	static synchronized String[] searchNamesStartingWith(String prefix)
+	{
+		load() ;
+		ArrayList<String> names = new ArrayList<>() ;
+		for(String name : texts.keySet()) if(name.startsWith(prefix)) names.add(name) ;
+		for(String name : images.keySet()) if(name.startsWith(prefix)) names.add(name) ;
+		return names.toArray(new String[0]) ;
+	}
+
+
+	/**
+	 * Delay the saving of the changes until <code>endBatch()</code> is called (calls can be nested).
+	 */
+	static synchronized void beginBatch()
+	{
+		batch_depth++ ;
+	}
+
+
+	/**
+	 * Save once all the changes made since <code>beginBatch()</code>.
+	 */
+	static synchronized void endBatch()
+	{
+		if(batch_depth > 0) batch_depth-- ;
+		scheduleSave() ;
+	}
+
+
+	/**
+	 * Note that the text entries have changed and schedule their saving.
+	 */
+	private static boolean textsModified()
+	{
+		texts_modified = true ;
+		scheduleSave() ;
+		return !texts_read_only ;
+	}
+
+
+	/**
+	 * Note that the image entries have changed and schedule their saving.
+	 */
+	private static boolean imagesModified()
+	{
+		images_modified = true ;
+		scheduleSave() ;
+		return !images_read_only ;
+	}
+
+
+	/**
+	 * Save the modified entries in the background, unless a batch is in progress or a saving is already planned.
+	 */
+	private static void scheduleSave()
+	{
+		if((batch_depth > 0) || save_scheduled || !(texts_modified || images_modified)) return ;
+		save_scheduled = true ;
+		writer.execute(CustomizationStore::save) ;
+	}
+
+
+	/**
+	 * Write the modified parts of the store (in the background, successive changes are saved together).
+	 */
+	private static void save()
+	{
+		// Prepare the content of the modified parts (the text entries are small, the images rarely change)
+		byte[] texts_content = null ;
+		byte[] images_content = null ;
+		synchronized(CustomizationStore.class)
+		{
+			save_scheduled = false ;
+			try
+			{
+				if(texts_modified && !texts_read_only) texts_content = serializeTexts() ;
+				if(images_modified && !images_read_only) images_content = serializeImages() ;
+			}
+			catch(IOException exception)
+			{
+				// An error happened while preparing the content
+				Utils.logError(TAG, exception.getMessage()) ;
+				return ;
+			}
+			texts_modified = false ;
+			images_modified = false ;
+		}
+
+		// Write the files outside of the lock (the single writer thread keeps the order of the savings)
+		if(texts_content != null) writePart(Constants.FILE_CUSTOMIZATIONS, texts_content) ;
+		if(images_content != null) writePart(Constants.FILE_CUSTOMIZATION_IMAGES, images_content) ;
+	}
+
+
+	/**
+	 * Read the store in one pass if not already done, or create it from the previous separate files.
+	 */
+	private static void load()
+	{
+		// Check if the store is already loaded
+		if(loaded) return ;
+		texts.clear() ;
+		images.clear() ;
+
+		// Use the folder of ActivityMain if the store has not been given one, otherwise retry at next access
+		if((folder == null) && (getInternalFolder() != null)) folder = new File(getInternalFolder()) ;
+		if(folder == null)
+			{
+				Utils.logError(TAG, "folder unknown, the changes will not be saved") ;
+				texts_read_only = true ;
+				images_read_only = true ;
+				return ;
+			}
+
+		// Migrate the previous separate files if the store does not exist yet (retried at next access if not successful)
+		if(!getFile(Constants.FILE_CUSTOMIZATIONS).exists() && !getFile(Constants.FILE_CUSTOMIZATIONS + BACKUP_SUFFIX).exists())
+			{
+				boolean migrated = migrateLegacyFiles() ;
+				texts_read_only = !migrated ;
+				images_read_only = !migrated ;
+				loaded = migrated ;
+				return ;
+			}
+
+		// Read both parts, never overwriting one which could not be read
+		texts_read_only = !loadPart(Constants.FILE_CUSTOMIZATIONS, false) ;
+		images_read_only = !loadPart(Constants.FILE_CUSTOMIZATION_IMAGES, true) ;
+		loaded = true ;
+	}
+
+
+	/**
+	 * Return a file of the store folder.
+	 */
+	private static InternalFileBIN getFile(String filename)
+	{
+		return new InternalFileBIN(folder, filename) ;
+	}
+
+
+	/**
+	 * Read a part of the store, or its backup (the previous version) if the part is missing or corrupted.
+	 * @return <code>true</code> if the part was read or does not exist, <code>false</code> if it is unreadable
+	 */
+	private static boolean loadPart(String filename, boolean images_part)
+	{
+		// Try the current version, then the backup
+		boolean found = false ;
+		String[] candidates = { filename, filename + BACKUP_SUFFIX } ;
+		for(String candidate : candidates)
+		{
+			// Check if the file exists and can be parsed
+			byte[] content = getFile(candidate).readAllBytes() ;
+			if(content == null) continue ;
+			found = true ;
+			if(readPart(content, images_part))
+				{
+					// Keep aside the unreadable current version, so that it does not replace the backup on next saving
+					if(!candidate.equals(filename))
+						{
+							Utils.logError(TAG, "restored " + filename + " from its backup") ;
+							InternalFileBIN corrupted = getFile(filename) ;
+							if(corrupted.exists() && !corrupted.rename(filename + CORRUPTED_SUFFIX))
+								Utils.logError(TAG, "unable to keep aside " + filename) ;
+						}
+					return true ;
+				}
+
+			// Forget the entries partially read
+			if(images_part) images.clear() ;
+				else texts.clear() ;
+		}
+
+		// The part is unreadable, it will not be saved to avoid losing its content
+		if(found) Utils.logError(TAG, "unable to read " + filename + ", the changes will not be saved") ;
+		return !found ;
+	}
+
+
+	/**
+	 * Parse a part of the store after verifying its format and its checksum.
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	private static boolean readPart(byte[] content, boolean images_part)
+	{
+		// Verify the checksum written after the entries
+		if(content.length < 16) return false ;
+		int length = content.length - 8 ;
+		CRC32 checksum = new CRC32() ;
+		checksum.update(content, 0, length) ;
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(content)) ;
+
+		try
+		{
+			// Check the format
+			if(input.readInt() != FORMAT_MAGIC) return false ;
+			if(input.readInt() != FORMAT_VERSION) return false ;
+			DataInputStream trailer = new DataInputStream(new ByteArrayInputStream(content, length, 8)) ;
+			if(trailer.readLong() != checksum.getValue()) return false ;
+
+			// Read the entries
+			int count = input.readInt() ;
+			for(int i = 0 ; i < count ; i++)
+			{
+				String name = input.readUTF() ;
+				if(images_part)
+					{
+						byte[] image = new byte[input.readInt()] ;
+						input.readFully(image) ;
+						images.put(name, image) ;
+					}
+					else
+					{
+						int lines_count = input.readInt() ;
+						ArrayList<String> lines = new ArrayList<>(lines_count) ;
+						for(int j = 0 ; j < lines_count ; j++) lines.add(input.readUTF()) ;
+						texts.put(name, lines) ;
+					}
+			}
+			return true ;
+		}
+		catch(IOException | RuntimeException exception)
+		{
+			// The content is truncated or invalid
+			Utils.logError(TAG, exception.getMessage()) ;
+			return false ;
+		}
+	}
+
+
+	/**
+	 * Return the text entries in the store format (to call with the lock held).
+	 */
+	private static byte[] serializeTexts() throws IOException
+	{
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream() ;
+		DataOutputStream output = new DataOutputStream(buffer) ;
+		output.writeInt(texts.size()) ;
+		for(Map.Entry<String, ArrayList<String>> entry : texts.entrySet())
+		{
+			output.writeUTF(entry.getKey()) ;
+			output.writeInt(entry.getValue().size()) ;
+			for(String line : entry.getValue()) output.writeUTF(line) ;
+		}
+		output.close() ;
+		return buffer.toByteArray() ;
+	}
+
+
+	/**
+	 * Return the image entries in the store format (to call with the lock held).
+	 */
+	private static byte[] serializeImages() throws IOException
+	{
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream() ;
+		DataOutputStream output = new DataOutputStream(buffer) ;
+		output.writeInt(images.size()) ;
+		for(Map.Entry<String, byte[]> entry : images.entrySet())
+		{
+			output.writeUTF(entry.getKey()) ;
+			output.writeInt(entry.getValue().length) ;
+			output.write(entry.getValue()) ;
+		}
+		output.close() ;
+		return buffer.toByteArray() ;
+	}
+
+
+	/**
+	 * Write a part of the store with its format and checksum, keeping the previous version as backup.
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	private static boolean writePart(String filename, byte[] entries)
+	{
+		try
+		{
+			// Prepare the content followed by its checksum
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream() ;
+			DataOutputStream output = new DataOutputStream(buffer) ;
+			output.writeInt(FORMAT_MAGIC) ;
+			output.writeInt(FORMAT_VERSION) ;
+			output.write(entries) ;
+			CRC32 checksum = new CRC32() ;
+			checksum.update(buffer.toByteArray()) ;
+			output.writeLong(checksum.getValue()) ;
+			output.close() ;
+
+			// Keep the previous version as backup, then write the new one (replaced in one step)
+			InternalFileBIN file = getFile(filename) ;
+			if(file.exists() && !file.rename(filename + BACKUP_SUFFIX))
+				Utils.logError(TAG, "unable to keep a backup of " + filename) ;
+			if(file.writeAllBytes(buffer.toByteArray())) return true ;
+			Utils.logError(TAG, "unable to write " + filename) ;
+			return false ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while preparing the content
+			Utils.logError(TAG, exception.getMessage()) ;
+			return false ;
+		}
+	}
+
+
+	/**
+	 * Import the customizations from the separate TXT and PNG files used before, then remove them.
+	 * @return <code>true</code> if successful or if there is nothing to import, <code>false</code> otherwise
+	 */
+	private static boolean migrateLegacyFiles()
+	{
+		// List the previous files (the fixed ones, the folders and the shortcuts icons)
+		String[] names = folder.list() ;
+		if(names == null)
+			{
+				Utils.logError(TAG, "unable to list " + folder.getName()) ;
+				return false ;
+			}
+		ArrayList<File> migrated = new ArrayList<>() ;
+		for(String name : names)
+		{
+			File legacy = new File(folder, name) ;
+			boolean is_text = name.startsWith(Constants.FILE_FOLDER_PREFIX) && name.endsWith(".txt") ;
+			for(String legacy_name : LEGACY_FILES) if(name.equals(legacy_name)) is_text = true ;
+
+			// Import the content of the file (an unreadable file is left as it is)
+			if(is_text)
+				{
+					ArrayList<String> lines = readLegacyText(legacy) ;
+					if(lines == null) continue ;
+					texts.put(name, lines) ;
+					migrated.add(legacy) ;
+				}
+				else if(name.startsWith(Constants.FILE_ICON_SHORTCUT_PREFIX) && name.endsWith(".png"))
+				{
+					byte[] image = getFile(name).readAllBytes() ;
+					if(image == null) continue ;
+					images.put(name, image) ;
+					migrated.add(legacy) ;
+				}
+		}
+		if(migrated.isEmpty()) return true ;
+
+		try
+		{
+			// Write the store immediately in one step per part (the previous files are kept if not successful)
+			if(!writePart(Constants.FILE_CUSTOMIZATION_IMAGES, serializeImages())) return false ;
+			if(!writePart(Constants.FILE_CUSTOMIZATIONS, serializeTexts())) return false ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while preparing the content, the previous files are kept
+			Utils.logError(TAG, exception.getMessage()) ;
+			return false ;
+		}
+
+		// Remove the previous files only once the store has been written
+		for(File legacy : migrated)
+			if(!legacy.delete()) Utils.logError(TAG, "unable to remove " + legacy.getName()) ;
+		Utils.logInfo(TAG, "migrated " + migrated.size() + " files to the store") ;
+		return true ;
+	}
+
+
+	/**
+	 * Read the lines of a previous TXT file (returns <code>null</code> if an error happened).
+	 */
+	private static ArrayList<String> readLegacyText(File legacy)
+	{
+		ArrayList<String> lines = new ArrayList<>() ;
+		String buffer ;
+		try
+		{
+			BufferedReader reader = new BufferedReader(new FileReader(legacy)) ;
+			while((buffer = reader.readLine()) != null) lines.add(buffer) ;
+			reader.close() ;
+			return lines ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while reading the file
+			Utils.logError(TAG, exception.getMessage()) ;
+			return null ;
+		}
+	}
+}
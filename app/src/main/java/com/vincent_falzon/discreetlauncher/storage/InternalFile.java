@@ -23,9 +23,7 @@ package com.vincent_falzon.discreetlauncher.storage ;
  */
 
 // Imports
-import android.content.Context ;
 import java.io.File ;
-import java.io.FilenameFilter ;
 import static com.vincent_falzon.discreetlauncher.ActivityMain.getInternalFolder ;
 
 /**
@@ -46,6 +44,15 @@ public class InternalFile
 	}
 
 
+	/**
+	 * Constructor for a file of the given folder.
+	 */
+	InternalFile(File folder, String filename)
+	{
+		file = new File(folder, filename) ;
+	}
+
+
 	/**
 	 * Check if the internal file exists on the system.
 	 */
@@ -81,16 +88,7 @@ public class InternalFile
 	 */
 	public boolean rename(String new_filename)
 	{
-		return file.renameTo(new File(getInternalFolder(), new_filename)) ;
+		return file.renameTo(new File(file.getParentFile(), new_filename)) ;
 	}
 
-
-	/**
-	 * Search internal files starting with a prefix (returns <code>null</code> if none was found).
-	 */
-	public static String[] searchFilesStartingWith(Context context, final String prefix)
-	{
-		FilenameFilter filter = (directory, name) -> name.startsWith(prefix) ;
-		return context.getFilesDir().list(filter) ;
-	}
 }
@@ -0,0 +1,140 @@
+package com.vincent_falzon.discreetlauncher.storage ;
+
+// License
+/*
+
+	This file is part of Discreet Launcher.
+
+	Copyright (C) 2019-2025 Vincent Falzon
+
+	This program is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ */
+
+// Imports
+import com.vincent_falzon.discreetlauncher.Utils ;
+import java.io.File ;
+import java.io.FileInputStream ;
+import java.io.FileOutputStream ;
+import java.io.IOException ;
+
+/**
+ * Manage the storage of an internal binary file.
+ */
+public class InternalFileBIN extends InternalFile
+{
+	// Constants
+	private static final String TAG = "InternalFileBIN" ;
+
+
+	/**
+	 * Constructor (the given filename should include the extension).
+	 */
+	public InternalFileBIN(String filename)
+	{
+		super(filename) ;
+	}
+
+
+	/**
+	 * Constructor for a file of the given folder.
+	 */
+	InternalFileBIN(File folder, String filename)
+	{
+		super(folder, filename) ;
+	}
+
+
+	/**
+	 * Return the whole file content in one read, or <code>null</code> if an error happened.
+	 */
+	public byte[] readAllBytes()
+	{
+		// Check if the file exists
+		if(!exists()) return null ;
+
+		// Prepare the table used to store the content
+		byte[] content = new byte[(int)file.length()] ;
+		int offset = 0 ;
+		int read ;
+
+		try
+		{
+			// Read the content from the file
+			FileInputStream input = new FileInputStream(file) ;
+			while((offset < content.length) && ((read = input.read(content, offset, content.length - offset)) > 0)) offset += read ;
+			input.close() ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while reading the file
+			Utils.logError(TAG, exception.getMessage()) ;
+			return null ;
+		}
+
+		// Return the content of the file (unless it was truncated while reading)
+		if(offset < content.length) return null ;
+		return content ;
+	}
+
+
+	/**
+	 * Replace the file content (written to a temporary file first, then renamed in one step).
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	public boolean writeAllBytes(byte[] content)
+	{
+		// Write the content in a temporary file next to the real one
+		File temporary = new File(file.getPath() + ".tmp") ;
+		try
+		{
+			FileOutputStream output = new FileOutputStream(temporary) ;
+			output.write(content) ;
+			output.getFD().sync() ;
+			output.close() ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while writing the file
+			Utils.logError(TAG, exception.getMessage()) ;
+			if(!temporary.delete()) Utils.logError(TAG, "unable to remove " + temporary.getName()) ;
+			return false ;
+		}
+
+		// Replace the real file by the temporary one
+		return temporary.renameTo(file) ;
+	}
+
+
+	/**
+	 * Add content at the end of the file (created if it does not exist).
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	public boolean appendBytes(byte[] content)
+	{
+		try
+		{
+			FileOutputStream output = new FileOutputStream(file, true) ;
+			output.write(content) ;
+			output.close() ;
+			return true ;
+		}
+		catch(IOException exception)
+		{
+			// An error happened while writing the file
+			Utils.logError(TAG, exception.getMessage()) ;
+			return false ;
+		}
+	}
+}
@@ -31,13 +31,11 @@ import android.graphics.drawable.Drawable ;
 import android.util.Base64 ;
 import com.vincent_falzon.discreetlauncher.Utils ;
 import java.io.ByteArrayOutputStream ;
-import java.io.FileOutputStream ;
-import java.io.IOException ;
 
 /**
- * Manage the storage of an internal PNG file.
+ * Manage the storage of an internal PNG file (kept as an entry of the customizations store).
  */
-public class InternalFilePNG extends InternalFile
+public class InternalFilePNG extends StoredFile
 {
 	// Constants
 	private static final String TAG = "InternalFilePNG" ;
@@ -60,18 +58,11 @@ public class InternalFilePNG extends InternalFile
 		// Do not continue if the Bitmap is empty
 		if(bitmap == null) return ;
 
-		try
-		{
-			// Write the Bitmap in the file
-			FileOutputStream output_file = new FileOutputStream(file) ;
-			bitmap.compress(Bitmap.CompressFormat.PNG, 100, output_file) ;
-			output_file.close() ;
-		}
-		catch(IOException exception)
-		{
-			// An error happened
-			Utils.logError(TAG, exception.getMessage()) ;
-		}
+		// Encode the Bitmap as PNG and save it in the store
+		ByteArrayOutputStream byteArray = new ByteArrayOutputStream() ;
+		bitmap.compress(Bitmap.CompressFormat.PNG, 100, byteArray) ;
+		if(!CustomizationStore.setImage(getName(), byteArray.toByteArray()))
+			Utils.logError(TAG, "unable to save " + getName()) ;
 	}
 
 
@@ -80,8 +71,9 @@ public class InternalFilePNG extends InternalFile
 	 */
 	public Bitmap readFromFile()
 	{
-		if(!exists()) return null ;
-		return BitmapFactory.decodeFile(file.getAbsolutePath(), new BitmapFactory.Options()) ;
+		byte[] content = CustomizationStore.getImage(getName()) ;
+		if(content == null) return null ;
+		return BitmapFactory.decodeByteArray(content, 0, content.length) ;
 	}
 
 
@@ -100,14 +92,12 @@ public class InternalFilePNG extends InternalFile
 	 */
 	public String prepareForExport()
 	{
-		// Try to decode the Bitmap
-		Bitmap bitmap = readFromFile() ;
-		if(bitmap == null) return "" ;
+		// Retrieve the PNG content as stored
+		byte[] content = CustomizationStore.getImage(getName()) ;
+		if(content == null) return "" ;
 
-		// Encode the Bitmap as a Base64 String and return the result
-		ByteArrayOutputStream byteArray = new ByteArrayOutputStream() ;
-		bitmap.compress(Bitmap.CompressFormat.PNG,100, byteArray) ;
-		return file.getName() + ": " + Base64.encodeToString(byteArray.toByteArray(), Base64.NO_WRAP) ;
+		// Encode the PNG content as a Base64 String and return the result
+		return getName() + ": " + Base64.encodeToString(content, Base64.NO_WRAP) ;
 	}
 
 
@@ -24,22 +24,14 @@ package com.vincent_falzon.discreetlauncher.storage ;
 
 // Imports
 import com.vincent_falzon.discreetlauncher.Constants ;
-import com.vincent_falzon.discreetlauncher.Utils ;
-import java.io.BufferedReader ;
-import java.io.FileReader ;
-import java.io.FileWriter ;
-import java.io.IOException ;
 import java.util.ArrayList ;
+import java.util.List ;
 
 /**
- * Manage the storage of an internal TXT file.
+ * Manage the storage of an internal TXT file (kept as an entry of the customizations store).
  */
-public class InternalFileTXT extends InternalFile
+public class InternalFileTXT extends StoredFile
 {
-	// Constants
-	private static final String TAG = "InternalFileTXT" ;
-
-
 	/**
 	 * Constructor (the given filename should include the extension).
 	 */
@@ -50,33 +42,11 @@ public class InternalFileTXT extends InternalFile
 
 
 	/**
-	 * Return the file content as an array of lines, or <code>null</code> if an error happened.
+	 * Return the file content as an array of lines, or <code>null</code> if the file does not exist.
 	 */
 	public ArrayList<String> readAllLines()
 	{
-		// Check if the file exists
-		if(!exists()) return null ;
-
-		// Prepare the table used to store the lines
-		ArrayList<String> content = new ArrayList<>() ;
-		String buffer ;
-
-		try
-		{
-			// Read the content from the file line by line
-			BufferedReader reader = new BufferedReader(new FileReader(file)) ;
-			while((buffer = reader.readLine()) != null) content.add(buffer) ;
-			reader.close() ;
-		}
-		catch(IOException exception)
-		{
-			// An error happened while reading the file
-			Utils.logError(TAG, exception.getMessage()) ;
-			return null ;
-		}
-
-		// Return the content of the file
-		return content ;
+		return CustomizationStore.getLines(getName()) ;
 	}
 
 
@@ -85,29 +55,26 @@ public class InternalFileTXT extends InternalFile
 	 */
 	public boolean isLineExisting(String searched_line)
 	{
-		if(!exists()) return false ;
-		return readAllLines().contains(searched_line) ;
+		return CustomizationStore.containsLine(getName(), searched_line) ;
 	}
 
 
 	/**
-	 * Write a line followed by <code>\n</code> at the end of the file (created if not existing).
+	 * Write a line at the end of the file (created if not existing).
 	 */
 	public void writeLine(String added_line)
 	{
-		try
-		{
-			// Write the line at the end of the file followed by a new line character
-			FileWriter writer = new FileWriter(file, true) ;
-			writer.write(added_line) ;
-			writer.write(System.lineSeparator()) ;
-			writer.close() ;
-		}
-		catch(IOException exception)
-		{
-			// An error happened while writing the line
-			Utils.logError(TAG, exception.getMessage()) ;
-		}
+		CustomizationStore.addLine(getName(), added_line) ;
+	}
+
+
+	/**
+	 * Replace the whole file content by the given lines (the store is saved in one step).
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	public boolean replaceAll(List<String> lines)
+	{
+		return CustomizationStore.setLines(getName(), lines) ;
 	}
 
 
@@ -117,22 +84,19 @@ public class InternalFileTXT extends InternalFile
 	 */
 	public boolean removeLine(String to_remove)
 	{
-		// Keep a copy of the file content and remove it
-		ArrayList<String> content = readAllLines() ;
-		if(content == null) return false ;
-		if(!remove()) return false ;
-
-		// Write back the content of the file except the line to remove
-		boolean result = false ;
-		for(String line : content)
+		synchronized(CustomizationStore.class)
 		{
-			if(line.startsWith(to_remove)) result = true ;
-				else writeLine(line) ;
+			// Keep all the lines except the ones to remove
+			ArrayList<String> content = readAllLines() ;
+			if(content == null) return false ;
+			ArrayList<String> kept = new ArrayList<>(content.size()) ;
+			for(String line : content)
+				if(!line.startsWith(to_remove)) kept.add(line) ;
+
+			// Rewrite the file in one step only if something was removed
+			if(kept.size() == content.size()) return false ;
+			return replaceAll(kept) ;
 		}
-
-		// Recreate the empty file if the removed line was the single one
-		if(!exists()) writeLine("") ;
-		return result ;
 	}
 
 
@@ -143,8 +107,9 @@ public class InternalFileTXT extends InternalFile
 	{
 		// Return the content of the file or indicate that it does not exist
 		ArrayList<String> content = new ArrayList<>() ;
-		if(!exists()) content.add(file.getName() + ": " + Constants.NONE) ;
-			else for(String line : readAllLines()) content.add(file.getName() + ": " + line) ;
+		ArrayList<String> lines = readAllLines() ;
+		if(lines == null) content.add(getName() + ": " + Constants.NONE) ;
+			else for(String line : lines) content.add(getName() + ": " + line) ;
 		return content ;
 	}
 }
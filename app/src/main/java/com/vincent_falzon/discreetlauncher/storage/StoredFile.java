@@ -0,0 +1,108 @@
+package com.vincent_falzon.discreetlauncher.storage ;
+
+// License
+/*
+
+	This file is part of Discreet Launcher.
+
+	Copyright (C) 2019-2025 Vincent Falzon
+
+	This program is free software: you can redistribute it and/or modify
+	it under the terms of the GNU General Public License as published by
+	the Free Software Foundation, either version 3 of the License, or
+	(at your option) any later version.
+
+	This program is distributed in the hope that it will be useful,
+	but WITHOUT ANY WARRANTY; without even the implied warranty of
+	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+	GNU General Public License for more details.
+
+	You should have received a copy of the GNU General Public License
+	along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ */
+
+// Imports
+import android.content.Context ;
+
+/**
+ * Manage an internal file kept as an entry of the customizations store instead of a file on the system.
+ */
+public abstract class StoredFile extends InternalFile
+{
+	/**
+	 * Constructor (the given filename should include the extension).
+	 */
+	StoredFile(String filename)
+	{
+		super(filename) ;
+	}
+
+
+	/**
+	 * Check if the internal file exists in the customizations store.
+	 */
+	@Override
+	public boolean exists()
+	{
+		return CustomizationStore.contains(getName()) ;
+	}
+
+
+	/**
+	 * Try to remove the internal file (considered as successful if not existing).
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	@Override
+	public boolean remove()
+	{
+		return CustomizationStore.remove(getName()) ;
+	}
+
+
+	/**
+	 * Try to rename the internal file.
+	 * @return <code>true</code> if successful, <code>false</code> otherwise
+	 */
+	@Override
+	public boolean rename(String new_filename)
+	{
+		return CustomizationStore.rename(getName(), new_filename) ;
+	}
+
+
+	/**
+	 * Locate the stored files using the given context (to call when the launcher starts, from any entry point).
+	 */
+	public static void initialize(Context context)
+	{
+		CustomizationStore.setFolder(context) ;
+	}
+
+
+	/**
+	 * Search the internal files starting with a prefix.
+	 */
+	public static String[] searchFilesStartingWith(String prefix)
+	{
+		return CustomizationStore.searchNamesStartingWith(prefix) ;
+	}
+
+
+	/**
+	 * Group the following changes of internal files to save them once, when <code>endBatch()</code> is called.
+	 */
+	public static void beginBatch()
+	{
+		CustomizationStore.beginBatch() ;
+	}
+
+
+	/**
+	 * Save together all the changes made since <code>beginBatch()</code>.
+	 */
+	public static void endBatch()
+	{
+		CustomizationStore.endBatch() ;
+	}
+}